@@ -0,0 +1,140 @@
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * This class is a representation of an event in a ScheduleCalendar.
+ * Unlike a ScheduleItem, a CalendarEvent has a date and may run past midnight into the following days.
+ */
+public class CalendarEvent implements Comparable<CalendarEvent> {
+
+	/**
+	 * Date the event starts on.
+	 */
+	private final LocalDate date;
+
+	/**
+	 * Start time on that date.
+	 */
+	private final TimeSimulator startTime;
+
+	/**
+	 * Length of the event in minutes.
+	 */
+	private final int duration;
+
+	/**
+	 * Description of the event.
+	 */
+	private final String description;
+
+	/**
+	 * Constructor with start date, start time, duration and description.
+	 * @param date start date
+	 * @param startTime start time
+	 * @param duration duration in minutes
+	 * @param description description
+	 */
+	public CalendarEvent(LocalDate date, TimeSimulator startTime, int duration, String description){
+		if(date==null){
+			throw new IllegalArgumentException("Null Date object!");
+		}
+
+		if(startTime==null){
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		if(duration<0){
+			throw new IllegalArgumentException("Duration must be non-negative!");
+		}
+
+		this.date = date;
+		this.startTime = startTime;
+		this.duration = duration;
+		this.description = description==null ? "" : description;
+	}
+
+	/**
+	 * return start date of CalendarEvent.
+	 * @return start date
+	 */
+	public LocalDate getDate(){
+		return this.date;
+	}
+
+	/**
+	 * return start time of CalendarEvent.
+	 * @return start time
+	 */
+	public TimeSimulator getStart(){
+		return this.startTime;
+	}
+
+	/**
+	 * return duration of CalendarEvent in minutes.
+	 * @return duration
+	 */
+	public int getDuration(){
+		return this.duration;
+	}
+
+	/**
+	 * return description of CalendarEvent.
+	 * @return description
+	 */
+	public String getDescription(){
+		return this.description;
+	}
+
+	/**
+	 * return start date and time of CalendarEvent.
+	 * @return start date and time
+	 */
+	public LocalDateTime getStartDateTime(){
+		return this.date.atTime(this.startTime.getHour(), this.startTime.getMin());
+	}
+
+	/**
+	 * return end date and time of CalendarEvent.
+	 * @return end date and time
+	 */
+	public LocalDateTime getEndDateTime(){
+		return getStartDateTime().plusMinutes(this.duration);
+	}
+
+	/**
+	 * return the date of the last day this CalendarEvent occupies.
+	 * @return last date
+	 */
+	public LocalDate getLastDate(){
+		long lastMinute = (long) this.startTime.getMinuteOfDay() + Math.max(this.duration - 1, 0);
+		return this.date.plusDays(lastMinute / DayOccupancy.MINUTES_PER_DAY);
+	}
+
+	/**
+	 * A method that compares two CalendarEvents by start date and time.
+	 * @param otherEvent event to be compared with this event.
+	 * @return -1 if this event starts before argument event, 1 if after, and 0 if same.
+	 */
+	@Override
+	public int compareTo(CalendarEvent otherEvent){
+		if(otherEvent==null)
+			throw new IllegalArgumentException("Null CalendarEvent object!");
+
+		int byDate = this.date.compareTo(otherEvent.date);
+		if(byDate!=0)
+			return byDate < 0 ? -1 : 1;
+
+		return this.startTime.compareTo(otherEvent.startTime);
+	}
+
+	/**
+	 * Return a string representation of the CalendarEvent in the form of
+	 * yyyy-mm-dd hh:mm-yyyy-mm-dd hh:mm/description.
+	 * @return string representation of CalendarEvent
+	 */
+	public String toString(){
+		LocalDateTime end = getEndDateTime();
+		return String.format("%s %s-%s %02d:%02d/%s", this.date, this.startTime, end.toLocalDate(), end.getHour(), end.getMinute(), this.description);
+	}
+
+}
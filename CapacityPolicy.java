@@ -0,0 +1,140 @@
+/**
+ * This class represents when and how far a sorted store grows and shrinks its backing array.
+ * A full array grows by growthFactor. An array shrinks once fewer than shrinkThreshold of its
+ * slots are in use, and then only down to size * growthFactor, so it is again as full as right
+ * after a grow. The gap between the two thresholds is the hysteresis: after any resize, the size
+ * has to change by a constant factor before the next resize, so add/delete workloads oscillating
+ * around one size do not reallocate over and over.
+ */
+public class CapacityPolicy {
+
+	/**
+	 * Largest capacity an array is allowed to grow to.
+	 */
+	static final int MAX_CAPACITY = Integer.MAX_VALUE - 50;
+
+	/**
+	 * Doubles when full, halves when less than a quarter full.
+	 */
+	public static final CapacityPolicy DEFAULT = new CapacityPolicy(2.0, 0.25, 2);
+
+	/**
+	 * Doubles when full and never shrinks on its own.
+	 */
+	public static final CapacityPolicy NEVER_SHRINK = new CapacityPolicy(2.0, 0, 2);
+
+	/**
+	 * Factor the capacity grows by when the array is full.
+	 */
+	private final double growthFactor;
+
+	/**
+	 * Fraction of slots in use below which the array shrinks; 0 disables shrinking.
+	 */
+	private final double shrinkThreshold;
+
+	/**
+	 * Capacity the array never shrinks below.
+	 */
+	private final int minCapacity;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param growthFactor factor the capacity grows by, greater than 1
+	 * @param shrinkThreshold fraction of slots in use below which the array shrinks, 0 to never
+	 *        shrink; must be below 1 / growthFactor so a grow can never trigger a shrink
+	 * @param minCapacity capacity the array never shrinks below, at least 2
+	 */
+	public CapacityPolicy(double growthFactor, double shrinkThreshold, int minCapacity) {
+		if (!(growthFactor > 1)) {
+			throw new IllegalArgumentException("Growth factor must be greater than 1!");
+		}
+
+		if (!(shrinkThreshold >= 0 && shrinkThreshold * growthFactor < 1)) {
+			throw new IllegalArgumentException("Shrink threshold must be between 0 and 1 / growth factor!");
+		}
+
+		if (minCapacity < 2) {
+			throw new IllegalArgumentException("Capacity must be at least 2!");
+		}
+
+		this.growthFactor = growthFactor;
+		this.shrinkThreshold = shrinkThreshold;
+		this.minCapacity = minCapacity;
+	}
+
+	/**
+	 * Returns the growth factor.
+	 *
+	 * @return growth factor
+	 */
+	public double getGrowthFactor( ) {
+		return growthFactor;
+	}
+
+	/**
+	 * Returns the shrink threshold.
+	 *
+	 * @return fraction of slots in use below which the array shrinks
+	 */
+	public double getShrinkThreshold( ) {
+		return shrinkThreshold;
+	}
+
+	/**
+	 * Returns the minimum capacity.
+	 *
+	 * @return capacity the array never shrinks below
+	 */
+	public int getMinCapacity( ) {
+		return minCapacity;
+	}
+
+	/**
+	 * Returns the capacity to grow to so that required items fit, growing by growthFactor as
+	 * often as needed.
+	 *
+	 * @param capacity current capacity
+	 * @param required number of items that must fit
+	 * @return new capacity, at least required
+	 */
+	public int grownCapacity(int capacity, int required) {
+		if (required > MAX_CAPACITY) {
+			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
+		}
+
+		long newCap = Math.max(capacity, minCapacity);
+		while (newCap < required) {
+			newCap = Math.max(newCap + 1, (long) (newCap * growthFactor));
+		}
+		return (int) Math.min(newCap, MAX_CAPACITY);
+	}
+
+	/**
+	 * Returns the capacity to shrink to after a delete, or the current capacity to keep it.
+	 *
+	 * @param size number of items in use
+	 * @param capacity current capacity
+	 * @param floor capacity not to shrink below, e.g. one reserved with ensureCapacity
+	 * @return new capacity
+	 */
+	public int shrunkCapacity(int size, int capacity, int floor) {
+		if (size >= capacity * shrinkThreshold) {
+			return capacity;
+		}
+
+		long target = Math.max(Math.max(minCapacity, floor), (long) Math.ceil(size * growthFactor));
+		return (int) Math.min(target, capacity);
+	}
+
+	/**
+	 * Return a string representation of the policy.
+	 *
+	 * @return string representation of policy
+	 */
+	public String toString( ) {
+		return "CapacityPolicy[growthFactor=" + growthFactor + ", shrinkThreshold=" + shrinkThreshold + ", minCapacity=" + minCapacity + "]";
+	}
+
+}
@@ -0,0 +1,598 @@
+import java.lang.reflect.Array;
+import java.util.Arrays;
+import java.util.Collection;
+
+/**
+ * This class represents a ScheduleStore backed by a list of fixed-size sorted chunks instead of
+ * one flat array. add and delete only shift elements inside one chunk, and a Fenwick tree over
+ * the chunk sizes finds the chunk holding any index in O(log n), so get(int) and the index-based
+ * Scheduler API keep working while edits in the middle of a very large schedule no longer move
+ * the whole array.
+ * A full chunk is split in half; a chunk that falls below a quarter full is merged into a
+ * neighbour when the two fit into three quarters of a chunk.
+ * @param <T> parameter type
+ */
+public class ChunkedScheduleSorter<T extends Comparable<T>> implements ScheduleStore<T> {
+
+	/**
+	 * Default number of elements per chunk.
+	 */
+	private static final int DEFAULT_CHUNK_CAPACITY = 1024;
+
+	/**
+	 * Smallest allowed number of elements per chunk.
+	 */
+	private static final int MIN_CHUNK_CAPACITY = 4;
+
+	/**
+	 * Batch size from which addAll sorts the incoming values in parallel.
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+	/**
+	 * Largest number of elements the store may hold.
+	 */
+	private static final int MAX_CAPACITY = CapacityPolicy.MAX_CAPACITY;
+
+	/**
+	 * Number of elements per chunk.
+	 */
+	private final int chunkCapacity;
+
+	/**
+	 * Chunks in order; the first chunkCount entries are in use.
+	 */
+	private T[][] chunks;
+
+	/**
+	 * Number of elements in use in each chunk.
+	 */
+	private int[] sizes;
+
+	/**
+	 * False for chunks still shared with a snapshot, which must be copied before they change.
+	 */
+	private boolean[] owned;
+
+	/**
+	 * Fenwick tree over sizes, 1-based.
+	 */
+	private int[] tree;
+
+	/**
+	 * Number of chunks in use, at least one.
+	 */
+	private int chunkCount;
+
+	/**
+	 * Number of stored elements.
+	 */
+	private int size;
+
+	/**
+	 * True if this is a read-only snapshot.
+	 */
+	private final boolean readOnly;
+
+	/**
+	 * Constructor for this class. Uses chunks of 1024 elements.
+	 */
+	public ChunkedScheduleSorter( ) {
+		this(DEFAULT_CHUNK_CAPACITY);
+	}
+
+	/**
+	 * Constructor for this class with the given number of elements per chunk.
+	 *
+	 * @param chunkCapacity number of elements per chunk, at least 4
+	 */
+	public ChunkedScheduleSorter(int chunkCapacity) {
+		if (chunkCapacity < MIN_CHUNK_CAPACITY)
+			throw new IllegalArgumentException("Chunk capacity must be at least " + MIN_CHUNK_CAPACITY + "!");
+
+		this.chunkCapacity = chunkCapacity;
+		this.readOnly = false;
+		chunks = newArray(Comparable[].class, 2);
+		sizes = new int[2];
+		owned = new boolean[2];
+		chunks[0] = newChunk();
+		owned[0] = true;
+		chunkCount = 1;
+		rebuildTree();
+	}
+
+	/**
+	 * Constructor for a read-only snapshot sharing the chunks of the given store.
+	 *
+	 * @param source store to share
+	 */
+	private ChunkedScheduleSorter(ChunkedScheduleSorter<T> source) {
+		chunkCapacity = source.chunkCapacity;
+		readOnly = true;
+		chunks = Arrays.copyOf(source.chunks, source.chunkCount);
+		sizes = Arrays.copyOf(source.sizes, source.chunkCount);
+		owned = new boolean[source.chunkCount];
+		tree = Arrays.copyOf(source.tree, source.chunkCount + 1);
+		chunkCount = source.chunkCount;
+		size = source.size;
+	}
+
+	/**
+	 * Returns number of stored elements.
+	 *
+	 * @return size of store
+	 */
+	public int size( ) {
+		return size;
+	}
+
+	/**
+	 * Returns number of element slots allocated in all chunks.
+	 *
+	 * @return capacity
+	 */
+	public int capacity( ) {
+		return (int) Math.min((long) chunkCount * chunkCapacity, MAX_CAPACITY);
+	}
+
+	/**
+	 * Returns number of chunks in use.
+	 *
+	 * @return chunk count
+	 */
+	public int chunkCount( ) {
+		return chunkCount;
+	}
+
+	/**
+	 * Returns a read-only, point-in-time view of this store. The view copies only the chunk
+	 * directory, O(n / chunk capacity), and shares every chunk; the next change to a chunk of this
+	 * store copies that chunk first, so the view never changes.
+	 *
+	 * @return read-only snapshot
+	 */
+	public ChunkedScheduleSorter<T> snapshot( ) {
+		if (!readOnly) {
+			Arrays.fill(owned, 0, chunkCount, false);
+		}
+		return new ChunkedScheduleSorter<>(this);
+	}
+
+	/**
+	 * Insert the given value and keep the store sorted in ascending order. Values equal to
+	 * existing ones are placed after them.
+	 *
+	 * @param value value to be added
+	 */
+	public void add(T value) {
+		checkWritable();
+
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot add: null value!");
+		}
+
+		if (size == MAX_CAPACITY)
+			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
+
+		int c = chunkFor(value);
+		if (sizes[c] == chunkCapacity) {
+			split(c);
+			if (chunks[c][sizes[c] - 1].compareTo(value) <= 0) {
+				c++;
+			}
+		}
+
+		T[] chunk = writable(c);
+		int slot = upperBound(chunk, sizes[c], value);
+		System.arraycopy(chunk, slot, chunk, slot + 1, sizes[c] - slot);
+		chunk[slot] = value;
+		sizes[c]++;
+		addToTree(c, 1);
+		size++;
+	}
+
+	/**
+	 * Insert all given values and keep the store sorted in ascending order. Small batches are
+	 * added one by one; larger ones are sorted on their own, merged with the existing elements
+	 * in one pass and cut into chunks three quarters full.
+	 *
+	 * @param values values to be added
+	 */
+	public void addAll(Collection<? extends T> values) {
+		checkWritable();
+
+		if (values == null) {
+			throw new IllegalArgumentException("Cannot add: null collection!");
+		}
+
+		T[] batch = newArray(Comparable.class, values.size());
+		batch = values.toArray(batch);
+
+		if (batch.length == 0) {
+			return;
+		}
+
+		for (T value : batch) {
+			if (value == null) {
+				throw new IllegalArgumentException("Cannot add: null value!");
+			}
+		}
+
+		if ((long) size + batch.length > MAX_CAPACITY)
+			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
+
+		if (batch.length <= size / 16) {
+			for (T value : batch) {
+				add(value);
+			}
+			return;
+		}
+
+		if (!isSorted(batch)) {
+			if (batch.length >= PARALLEL_SORT_THRESHOLD) {
+				Arrays.parallelSort(batch);
+			} else {
+				Arrays.sort(batch);
+			}
+		}
+
+		T[] merged = newArray(Comparable.class, size + batch.length);
+		int k = 0;
+		int j = 0;
+		for (int c = 0; c < chunkCount; c++) {
+			T[] chunk = chunks[c];
+			for (int i = 0; i < sizes[c]; i++) {
+				while (j < batch.length && batch[j].compareTo(chunk[i]) < 0) {
+					merged[k++] = batch[j++];
+				}
+				merged[k++] = chunk[i];
+			}
+		}
+		while (j < batch.length) {
+			merged[k++] = batch[j++];
+		}
+
+		fill(merged);
+	}
+
+	/**
+	 * Return the element at the given index in O(log n).
+	 *
+	 * @param index index of element
+	 * @return element at given index
+	 */
+	public T get(int index) {
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		long at = locate(index);
+		return chunks[(int) (at >>> 32)][(int) at];
+	}
+
+	/**
+	 * Change the element at the given index to be the given value, if that keeps the store sorted.
+	 *
+	 * @param index index
+	 * @param value new value
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean replace(int index, T value) {
+		checkWritable();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot add: null value!");
+		}
+
+		if ((index > 0 && value.compareTo(get(index - 1)) < 0) || (index < size - 1 && value.compareTo(get(index + 1)) > 0)) {
+			return false;
+		}
+
+		long at = locate(index);
+		writable((int) (at >>> 32))[(int) at] = value;
+		return true;
+	}
+
+	/**
+	 * Remove and return the element at the given index.
+	 *
+	 * @param index index
+	 * @return element at given index.
+	 */
+	public T delete(int index) {
+		checkWritable();
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		long at = locate(index);
+		int c = (int) (at >>> 32);
+		int offset = (int) at;
+
+		T[] chunk = writable(c);
+		T removed = chunk[offset];
+		System.arraycopy(chunk, offset + 1, chunk, offset, sizes[c] - offset - 1);
+		chunk[--sizes[c]] = null;
+		addToTree(c, -1);
+		size--;
+
+		if (chunkCount > 1) {
+			if (sizes[c] == 0) {
+				removeChunk(c);
+			} else if (sizes[c] < chunkCapacity / 4) {
+				int limit = chunkCapacity * 3 / 4;
+				if (c + 1 < chunkCount && sizes[c] + sizes[c + 1] <= limit) {
+					mergeIntoLeft(c);
+				} else if (c > 0 && sizes[c - 1] + sizes[c] <= limit) {
+					mergeIntoLeft(c - 1);
+				}
+			}
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Private method that rejects changes to a snapshot.
+	 */
+	private void checkWritable( ) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Cannot modify: read-only snapshot!");
+		}
+	}
+
+	/**
+	 * Private method that returns chunk c, copying it first if a snapshot still shares it.
+	 *
+	 * @param c chunk index
+	 * @return chunk owned by this store
+	 */
+	private T[] writable(int c) {
+		if (!owned[c]) {
+			chunks[c] = chunks[c].clone();
+			owned[c] = true;
+		}
+		return chunks[c];
+	}
+
+	/**
+	 * Private method that allocates an empty chunk.
+	 *
+	 * @return new chunk
+	 */
+	private T[] newChunk( ) {
+		return newArray(Comparable.class, chunkCapacity);
+	}
+
+	/**
+	 * Private method that allocates an array of the given component type and returns it as the
+	 * generic array type the caller needs; the only place this class creates generic arrays.
+	 *
+	 * @param componentType Comparable.class for elements, Comparable[].class for chunk tables
+	 * @param length length of the array
+	 * @param <A> array type returned
+	 * @return new array
+	 */
+	@SuppressWarnings("unchecked")
+	private static <A> A newArray(Class<?> componentType, int length) {
+		return (A) Array.newInstance(componentType, length);
+	}
+
+	/**
+	 * Private method that finds the chunk value belongs in: the first chunk whose last element is
+	 * greater than value, or the last chunk.
+	 *
+	 * @param value value to be placed
+	 * @return chunk index
+	 */
+	private int chunkFor(T value) {
+		int low = 0;
+		int high = chunkCount - 1;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (chunks[mid][sizes[mid] - 1].compareTo(value) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Private method that finds the slot for value in a chunk by binary search. Returns the index
+	 * just past the last element that is less than or equal to value.
+	 *
+	 * @param chunk chunk
+	 * @param used number of elements in the chunk
+	 * @param value value to be placed
+	 * @return insertion index
+	 */
+	private int upperBound(T[] chunk, int used, T value) {
+		int low = 0;
+		int high = used;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (chunk[mid].compareTo(value) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Private method that finds the chunk and offset of an index by descending the Fenwick tree.
+	 *
+	 * @param index index, in range
+	 * @return chunk index in the upper 32 bits, offset in the lower 32 bits
+	 */
+	private long locate(int index) {
+		int pos = 0;
+		int rest = index;
+
+		for (int step = Integer.highestOneBit(chunkCount); step > 0; step >>= 1) {
+			int next = pos + step;
+			if (next <= chunkCount && tree[next] <= rest) {
+				pos = next;
+				rest -= tree[next];
+			}
+		}
+
+		return ((long) pos << 32) | rest;
+	}
+
+	/**
+	 * Private method that adds delta to the size of chunk c in the Fenwick tree.
+	 *
+	 * @param c chunk index
+	 * @param delta change in size
+	 */
+	private void addToTree(int c, int delta) {
+		for (int i = c + 1; i <= chunkCount; i += i & -i) {
+			tree[i] += delta;
+		}
+	}
+
+	/**
+	 * Private method that rebuilds the Fenwick tree from sizes in O(number of chunks).
+	 */
+	private void rebuildTree( ) {
+		if (tree == null || tree.length < chunks.length + 1) {
+			tree = new int[chunks.length + 1];
+		} else {
+			Arrays.fill(tree, 0);
+		}
+
+		for (int i = 1; i <= chunkCount; i++) {
+			tree[i] += sizes[i - 1];
+			int parent = i + (i & -i);
+			if (parent <= chunkCount) {
+				tree[parent] += tree[i];
+			}
+		}
+	}
+
+	/**
+	 * Private method that makes room for one more chunk in the directory.
+	 */
+	private void ensureDirectory( ) {
+		if (chunkCount == chunks.length) {
+			int newLength = chunks.length * 2;
+			chunks = Arrays.copyOf(chunks, newLength);
+			sizes = Arrays.copyOf(sizes, newLength);
+			owned = Arrays.copyOf(owned, newLength);
+		}
+	}
+
+	/**
+	 * Private method that splits full chunk c into two half-full chunks c and c + 1.
+	 *
+	 * @param c chunk index
+	 */
+	private void split(int c) {
+		ensureDirectory();
+		T[] left = writable(c);
+		int half = sizes[c] / 2;
+		int moved = sizes[c] - half;
+
+		T[] right = newChunk();
+		System.arraycopy(left, half, right, 0, moved);
+		Arrays.fill(left, half, sizes[c], null);
+
+		System.arraycopy(chunks, c + 1, chunks, c + 2, chunkCount - c - 1);
+		System.arraycopy(sizes, c + 1, sizes, c + 2, chunkCount - c - 1);
+		System.arraycopy(owned, c + 1, owned, c + 2, chunkCount - c - 1);
+		chunks[c + 1] = right;
+		sizes[c] = half;
+		sizes[c + 1] = moved;
+		owned[c + 1] = true;
+		chunkCount++;
+
+		rebuildTree();
+	}
+
+	/**
+	 * Private method that moves the elements of chunk c + 1 to the end of chunk c and removes
+	 * chunk c + 1.
+	 *
+	 * @param c index of the left chunk
+	 */
+	private void mergeIntoLeft(int c) {
+		T[] left = writable(c);
+		System.arraycopy(chunks[c + 1], 0, left, sizes[c], sizes[c + 1]);
+		sizes[c] += sizes[c + 1];
+		sizes[c + 1] = 0;
+		removeChunk(c + 1);
+	}
+
+	/**
+	 * Private method that removes empty chunk c from the directory.
+	 *
+	 * @param c chunk index
+	 */
+	private void removeChunk(int c) {
+		System.arraycopy(chunks, c + 1, chunks, c, chunkCount - c - 1);
+		System.arraycopy(sizes, c + 1, sizes, c, chunkCount - c - 1);
+		System.arraycopy(owned, c + 1, owned, c, chunkCount - c - 1);
+		chunkCount--;
+		chunks[chunkCount] = null;
+		sizes[chunkCount] = 0;
+		owned[chunkCount] = false;
+
+		rebuildTree();
+	}
+
+	/**
+	 * Private method that replaces every chunk with chunks three quarters full of the given
+	 * sorted elements.
+	 *
+	 * @param sorted all elements, in order
+	 */
+	private void fill(T[] sorted) {
+		int perChunk = Math.max(1, chunkCapacity * 3 / 4);
+		int count = Math.max(1, (sorted.length + perChunk - 1) / perChunk);
+		int length = Math.max(2, Integer.highestOneBit(count - 1) << 1);
+
+		chunks = newArray(Comparable[].class, length);
+		sizes = new int[length];
+		owned = new boolean[length];
+
+		for (int c = 0; c < count; c++) {
+			int from = c * perChunk;
+			int used = Math.min(perChunk, sorted.length - from);
+			chunks[c] = newChunk();
+			System.arraycopy(sorted, from, chunks[c], 0, used);
+			sizes[c] = used;
+			owned[c] = true;
+		}
+
+		chunkCount = count;
+		size = sorted.length;
+		rebuildTree();
+	}
+
+	/**
+	 * Private method that checks whether the given values are already in ascending order.
+	 *
+	 * @param values values to check
+	 * @return true if sorted, otherwise false.
+	 */
+	private boolean isSorted(T[] values) {
+		for (int i = 1; i < values.length; i++) {
+			if (values[i - 1].compareTo(values[i]) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+}
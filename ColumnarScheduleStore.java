@@ -0,0 +1,538 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class represents a ScheduleStore that keeps ScheduleItems as primitive columns.
+ * Start and end times are stored as minute-of-day shorts, descriptions and resource sets as
+ * handles into pools and ids as longs, so an item costs twenty bytes in the store instead of four
+ * objects. Description text lives once per distinct value in a DescriptionPool byte arena, so two
+ * items have the same description exactly when their handles are equal.
+ * get(int) builds a new ScheduleItem on every call; changing that ScheduleItem does not change
+ * the store until it is written back with replace(int, ScheduleItem).
+ */
+public class ColumnarScheduleStore implements ScheduleStore<ScheduleItem> {
+
+	/**
+	 * Default initial capacity.
+	 */
+	private static final int DEFAULT_CAPACITY = 2;
+
+	/**
+	 * Batch size from which addAll sorts the incoming values in parallel.
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+	/**
+	 * Largest capacity the columns are allowed to grow to.
+	 */
+	private static final int MAX_CAPACITY = CapacityPolicy.MAX_CAPACITY;
+
+	/**
+	 * Start minute of each item.
+	 */
+	private short[] starts;
+
+	/**
+	 * End minute of each item.
+	 */
+	private short[] ends;
+
+	/**
+	 * Description handle of each item.
+	 */
+	private int[] descriptions;
+
+	/**
+	 * Id of each item.
+	 */
+	private long[] ids;
+
+	/**
+	 * Descriptions by handle. Only ever appended to, so snapshots take a read-only view of it.
+	 */
+	private final DescriptionPool pool;
+
+	/**
+	 * Resource set handle of each item; 0 is the empty set.
+	 */
+	private int[] tags;
+
+	/**
+	 * Resource sets by handle. Only ever appended to, so snapshots can share it.
+	 */
+	private Set<Resource>[] tagPool;
+
+	/**
+	 * Number of resource sets in the pool.
+	 */
+	private int tagPoolSize;
+
+	/**
+	 * Handles by resource set.
+	 */
+	private final Map<Set<Resource>, Integer> tagHandles;
+
+	/**
+	 * Number of stored items.
+	 */
+	private int size;
+
+	/**
+	 * True if the columns are shared with a snapshot and must be copied before the next change.
+	 */
+	private boolean shared;
+
+	/**
+	 * True if this is a read-only snapshot.
+	 */
+	private final boolean readOnly;
+
+	/**
+	 * Constructor for this class. Sets capacity to default, which is 2.
+	 */
+	public ColumnarScheduleStore( ) {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor for this class. Sets capacity to provided capacity.
+	 *
+	 * @param initialCapacity capacity
+	 */
+	@SuppressWarnings("unchecked")
+	public ColumnarScheduleStore(int initialCapacity) {
+		if (initialCapacity < DEFAULT_CAPACITY)
+			throw new IllegalArgumentException("Capacity must be at least 2!");
+
+		starts = new short[initialCapacity];
+		ends = new short[initialCapacity];
+		descriptions = new int[initialCapacity];
+		ids = new long[initialCapacity];
+		tags = new int[initialCapacity];
+		pool = new DescriptionPool();
+		tagPool = (Set<Resource>[]) new Set<?>[DEFAULT_CAPACITY];
+		tagPool[tagPoolSize++] = Collections.emptySet();
+		tagHandles = new HashMap<>();
+		readOnly = false;
+	}
+
+	/**
+	 * Constructor for a read-only snapshot sharing the columns of the given store.
+	 *
+	 * @param source store to share
+	 */
+	private ColumnarScheduleStore(ColumnarScheduleStore source) {
+		starts = source.starts;
+		ends = source.ends;
+		descriptions = source.descriptions;
+		ids = source.ids;
+		tags = source.tags;
+		pool = source.readOnly ? source.pool : source.pool.snapshot();
+		tagPool = source.tagPool;
+		tagPoolSize = source.tagPoolSize;
+		size = source.size;
+		tagHandles = null;
+		readOnly = true;
+	}
+
+	/**
+	 * Returns number of stored items.
+	 *
+	 * @return size of store
+	 */
+	public int size( ) {
+		return size;
+	}
+
+	/**
+	 * Returns capacity of the columns.
+	 *
+	 * @return capacity
+	 */
+	public int capacity( ) {
+		return starts.length;
+	}
+
+	/**
+	 * Returns number of distinct descriptions in the string pool.
+	 *
+	 * @return pool size
+	 */
+	public int poolSize( ) {
+		return pool.size();
+	}
+
+	/**
+	 * Returns the pool the descriptions are interned in.
+	 *
+	 * @return description pool
+	 */
+	public DescriptionPool descriptionPool( ) {
+		return pool;
+	}
+
+	/**
+	 * Returns a read-only, point-in-time view of this store in O(1). The view shares the columns;
+	 * the next change to this store copies them first, so the view never changes.
+	 *
+	 * @return read-only snapshot
+	 */
+	public ColumnarScheduleStore snapshot( ) {
+		if (!readOnly) {
+			shared = true;
+		}
+		return new ColumnarScheduleStore(this);
+	}
+
+	/**
+	 * Insert the given item and keep the columns sorted by start time.
+	 *
+	 * @param value item to be added
+	 */
+	public void add(ScheduleItem value) {
+		beforeWrite();
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot add: null value!");
+		}
+
+		if (size == MAX_CAPACITY)
+			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
+
+		growTo(size + 1);
+
+		int slot = upperBound(value.getStartMinute());
+		int moved = size - slot;
+		System.arraycopy(starts, slot, starts, slot + 1, moved);
+		System.arraycopy(ends, slot, ends, slot + 1, moved);
+		System.arraycopy(descriptions, slot, descriptions, slot + 1, moved);
+		System.arraycopy(ids, slot, ids, slot + 1, moved);
+		System.arraycopy(tags, slot, tags, slot + 1, moved);
+
+		write(slot, value);
+		size++;
+	}
+
+	/**
+	 * Insert all given items and keep the columns sorted by start time. The batch is sorted on
+	 * packed primitive keys and merged with the existing columns in a single pass.
+	 *
+	 * @param values items to be added
+	 */
+	public void addAll(Collection<? extends ScheduleItem> values) {
+		beforeWrite();
+		if (values == null) {
+			throw new IllegalArgumentException("Cannot add: null collection!");
+		}
+
+		int count = values.size();
+		if (count == 0) {
+			return;
+		}
+
+		if ((long) size + count > MAX_CAPACITY)
+			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
+
+		short[] batchStarts = new short[count];
+		short[] batchEnds = new short[count];
+		int[] batchDescriptions = new int[count];
+		long[] batchIds = new long[count];
+		int[] batchTags = new int[count];
+		long[] order = new long[count];
+
+		int n = 0;
+		for (ScheduleItem value : values) {
+			if (value == null) {
+				throw new IllegalArgumentException("Cannot add: null value!");
+			}
+			batchStarts[n] = (short) value.getStartMinute();
+			batchEnds[n] = (short) value.getEndMinute();
+			batchDescriptions[n] = pool.intern(value.getDescription());
+			batchIds[n] = value.getId();
+			batchTags[n] = internTags(value.getResources());
+			order[n] = ((long) value.getStartMinute() << 32) | n;
+			n++;
+		}
+
+		if (count >= PARALLEL_SORT_THRESHOLD) {
+			Arrays.parallelSort(order);
+		} else {
+			Arrays.sort(order);
+		}
+
+		int newSize = size + count;
+		growTo(newSize);
+
+		int i = size - 1;
+		int j = count - 1;
+		int k = newSize - 1;
+
+		while (j >= 0) {
+			int next = (int) order[j];
+			if (i >= 0 && starts[i] > batchStarts[next]) {
+				starts[k] = starts[i];
+				ends[k] = ends[i];
+				descriptions[k] = descriptions[i];
+				ids[k] = ids[i];
+				tags[k] = tags[i];
+				i--;
+			} else {
+				starts[k] = batchStarts[next];
+				ends[k] = batchEnds[next];
+				descriptions[k] = batchDescriptions[next];
+				ids[k] = batchIds[next];
+				tags[k] = batchTags[next];
+				j--;
+			}
+			k--;
+		}
+
+		size = newSize;
+	}
+
+	/**
+	 * Return a new ScheduleItem holding the item at the given index.
+	 *
+	 * @param index index of item
+	 * @return item at given index
+	 */
+	public ScheduleItem get(int index) {
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		ScheduleItem item = new ScheduleItem(TimeSimulator.ofMinuteOfDay(starts[index]), TimeSimulator.ofMinuteOfDay(ends[index]), pool.get(descriptions[index]), tagPool[tags[index]]);
+		item.assignId(ids[index]);
+		return item;
+	}
+
+	/**
+	 * Returns the start minute of the item at the given index without building a ScheduleItem.
+	 *
+	 * @param index index of item
+	 * @return start minute
+	 */
+	public int startMinuteAt(int index) {
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		return starts[index];
+	}
+
+	/**
+	 * Returns the end minute of the item at the given index without building a ScheduleItem.
+	 *
+	 * @param index index of item
+	 * @return end minute
+	 */
+	public int endMinuteAt(int index) {
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		return ends[index];
+	}
+
+	/**
+	 * Returns the id of the item at the given index without building a ScheduleItem.
+	 *
+	 * @param index index of item
+	 * @return id
+	 */
+	public long idAt(int index) {
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		return ids[index];
+	}
+
+	/**
+	 * Returns the resources of the item at the given index without building a ScheduleItem.
+	 *
+	 * @param index index of item
+	 * @return unmodifiable set of resources, empty if none
+	 */
+	public Set<Resource> resourcesAt(int index) {
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		return tagPool[tags[index]];
+	}
+
+	/**
+	 * Returns the description handle of the item at the given index without building a
+	 * ScheduleItem. Two items have the same description if and only if their handles are equal.
+	 *
+	 * @param index index of item
+	 * @return handle into descriptionPool()
+	 */
+	public int descriptionHandleAt(int index) {
+		if (index >= size || index < 0) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		return descriptions[index];
+	}
+
+	/**
+	 * Change the item at the given index to be the given item, if that keeps the columns sorted.
+	 *
+	 * @param index index
+	 * @param value new item
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean replace(int index, ScheduleItem value) {
+		beforeWrite();
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+
+		if (value == null) {
+			throw new IllegalArgumentException("Cannot add: null value!");
+		}
+
+		int start = value.getStartMinute();
+		if ((index > 0 && start < starts[index - 1]) || (index < size - 1 && start > starts[index + 1])) {
+			return false;
+		}
+
+		write(index, value);
+		return true;
+	}
+
+	/**
+	 * Remove and return the item at the given index.
+	 *
+	 * @param index index
+	 * @return item at given index.
+	 */
+	public ScheduleItem delete(int index) {
+		beforeWrite();
+		ScheduleItem removed = get(index);
+
+		int moved = size - index - 1;
+		System.arraycopy(starts, index + 1, starts, index, moved);
+		System.arraycopy(ends, index + 1, ends, index, moved);
+		System.arraycopy(descriptions, index + 1, descriptions, index, moved);
+		System.arraycopy(ids, index + 1, ids, index, moved);
+		System.arraycopy(tags, index + 1, tags, index, moved);
+		size--;
+
+		int newCap = CapacityPolicy.DEFAULT.shrunkCapacity(size, capacity(), DEFAULT_CAPACITY);
+		if (newCap < capacity()) {
+			resize(newCap);
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Private method called before every change. Rejects changes to a snapshot and gives this
+	 * store its own copy of the columns if a snapshot still shares them.
+	 */
+	private void beforeWrite( ) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Cannot modify: read-only snapshot!");
+		}
+
+		if (shared) {
+			resize(capacity());
+			shared = false;
+		}
+	}
+
+	/**
+	 * Private method that finds the slot for a start minute by binary search over the start column.
+	 * Returns the index just past the last item starting at or before start.
+	 *
+	 * @param start start minute
+	 * @return insertion index
+	 */
+	private int upperBound(int start) {
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (starts[mid] <= start) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+
+		return low;
+	}
+
+	/**
+	 * Private method that writes the given item into the columns at index.
+	 *
+	 * @param index index
+	 * @param value item
+	 */
+	private void write(int index, ScheduleItem value) {
+		starts[index] = (short) value.getStartMinute();
+		ends[index] = (short) value.getEndMinute();
+		descriptions[index] = pool.intern(value.getDescription());
+		ids[index] = value.getId();
+		tags[index] = internTags(value.getResources());
+	}
+
+	/**
+	 * Private method that returns the pool handle of a resource set, adding it if new.
+	 *
+	 * @param resources resource set
+	 * @return handle, 0 for the empty set
+	 */
+	private int internTags(Set<Resource> resources) {
+		if (resources.isEmpty()) {
+			return 0;
+		}
+
+		Integer handle = tagHandles.get(resources);
+
+		if (handle == null) {
+			if (tagPoolSize == tagPool.length) {
+				tagPool = Arrays.copyOf(tagPool, tagPool.length * 2);
+			}
+			handle = tagPoolSize;
+			tagPool[tagPoolSize++] = resources;
+			tagHandles.put(resources, handle);
+		}
+
+		return handle;
+	}
+
+	/**
+	 * Private method that grows the columns, by doubling, until they can hold minCapacity items.
+	 *
+	 * @param minCapacity number of items the columns must be able to hold
+	 */
+	private void growTo(int minCapacity) {
+		if (minCapacity <= capacity()) {
+			return;
+		}
+
+		resize(CapacityPolicy.DEFAULT.grownCapacity(capacity(), minCapacity));
+	}
+
+	/**
+	 * Private method that reallocates every column with the given capacity.
+	 *
+	 * @param newCap new capacity
+	 */
+	private void resize(int newCap) {
+		starts = Arrays.copyOf(starts, newCap);
+		ends = Arrays.copyOf(ends, newCap);
+		descriptions = Arrays.copyOf(descriptions, newCap);
+		ids = Arrays.copyOf(ids, newCap);
+		tags = Arrays.copyOf(tags, newCap);
+	}
+
+}
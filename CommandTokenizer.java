@@ -0,0 +1,170 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents a fast tokenizer for TSScheduler command input.
+ * It reads through its own buffer and parses integers digit by digit, with the same
+ * nextInt/nextLine semantics the menu code relies on from Scanner: nextInt skips any
+ * whitespace, including line breaks, and nextLine returns the rest of the current line.
+ */
+public class CommandTokenizer {
+
+	/**
+	 * Size of the read buffer.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Source of the commands.
+	 */
+	private final Reader input;
+
+	/**
+	 * Read buffer.
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * Position of the next unread char in the buffer.
+	 */
+	private int pos;
+
+	/**
+	 * Number of valid chars in the buffer.
+	 */
+	private int limit;
+
+	/**
+	 * Line being assembled by nextLine.
+	 */
+	private final StringBuilder line = new StringBuilder();
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param input source of the commands
+	 */
+	public CommandTokenizer(Reader input) {
+		if (input == null) {
+			throw new IllegalArgumentException("Null Reader object!");
+		}
+		this.input = input;
+	}
+
+	/**
+	 * Returns whether any non-whitespace input is left. Skips the whitespace before it.
+	 *
+	 * @return true if there is another token, otherwise false.
+	 * @throws IOException if reading fails
+	 */
+	public boolean hasNext( ) throws IOException {
+		int c;
+		while ((c = peek()) >= 0 && Character.isWhitespace(c)) {
+			pos++;
+		}
+		return c >= 0;
+	}
+
+	/**
+	 * Reads the next integer, skipping whitespace before it.
+	 *
+	 * @return next integer
+	 * @throws IOException if reading fails
+	 */
+	public int nextInt( ) throws IOException {
+		if (!hasNext()) {
+			throw new NoSuchElementException("No more input!");
+		}
+
+		boolean negative = false;
+		int c = peek();
+
+		if (c == '-' || c == '+') {
+			negative = (c == '-');
+			pos++;
+			c = peek();
+		}
+
+		if (c < '0' || c > '9') {
+			throw new InputMismatchException("Expected a number!");
+		}
+
+		long value = 0;
+		while (c >= '0' && c <= '9') {
+			value = value * 10 + (c - '0');
+			if (value > (long) Integer.MAX_VALUE + 1) {
+				throw new InputMismatchException("Number out of range!");
+			}
+			pos++;
+			c = peek();
+		}
+
+		if (negative) {
+			value = -value;
+		}
+
+		if (value > Integer.MAX_VALUE) {
+			throw new InputMismatchException("Number out of range!");
+		}
+
+		return (int) value;
+	}
+
+	/**
+	 * Reads the rest of the current line and moves to the start of the next one.
+	 * The line break itself is not returned.
+	 *
+	 * @return rest of the line
+	 * @throws IOException if reading fails
+	 */
+	public String nextLine( ) throws IOException {
+		if (peek() < 0) {
+			throw new NoSuchElementException("No line found!");
+		}
+
+		line.setLength(0);
+
+		while (true) {
+			int start = pos;
+			while (pos < limit && buffer[pos] != '\n') {
+				pos++;
+			}
+			line.append(buffer, start, pos - start);
+
+			if (pos < limit) {
+				pos++;
+				break;
+			}
+			if (peek() < 0) {
+				break;
+			}
+		}
+
+		int end = line.length();
+		if (end > 0 && line.charAt(end - 1) == '\r') {
+			line.setLength(end - 1);
+		}
+		return line.toString();
+	}
+
+	/**
+	 * Private method that returns the next char without consuming it, refilling the buffer if needed.
+	 *
+	 * @return next char, or -1 at the end of input
+	 * @throws IOException if reading fails
+	 */
+	private int peek( ) throws IOException {
+		if (pos == limit) {
+			limit = input.read(buffer, 0, BUFFER_SIZE);
+			pos = 0;
+			if (limit <= 0) {
+				limit = 0;
+				return -1;
+			}
+		}
+		return buffer[pos];
+	}
+
+}
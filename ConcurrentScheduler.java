@@ -0,0 +1,637 @@
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * This is a representation of a Scheduler that can be shared between threads.
+ * getScheduleItem, size and toString first read without locking and only take the read lock if a
+ * write happened meanwhile; queries take the read lock and every edit takes the write lock.
+ */
+public class ConcurrentScheduler extends Scheduler{
+
+	/**
+	 * lock guarding the Scheduler state.
+	 */
+	private final StampedLock lock = new StampedLock();
+
+	/**
+	 * lock that lets only one saveTo run at a time.
+	 */
+	private final Object saveLock = new Object();
+
+	/**
+	 * Constructor with no arguments.
+	 */
+	public ConcurrentScheduler(){
+		super();
+	}
+
+	/**
+	 * Constructor with the store to keep the ScheduleItems in.
+	 * @param store sorted store of ScheduleItems
+	 */
+	public ConcurrentScheduler(ScheduleStore<ScheduleItem> store){
+		super(store);
+	}
+
+	/**
+	 * Returns number of ScheduleItems.
+	 * @return number of ScheduleItems.
+	 */
+	@Override
+	public int size(){
+		long stamp = lock.tryOptimisticRead();
+		int size = super.size();
+
+		if(lock.validate(stamp)){
+			return size;
+		}
+
+		stamp = lock.readLock();
+		try{
+			return super.size();
+		}finally{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Return the string representation of the Scheduler.
+	 * @return string representation of Scheduler.
+	 */
+	@Override
+	public String toString(){
+		return optimisticRead(super::toString);
+	}
+
+	/**
+	 * Writes the ScheduleItems to out from an O(1) snapshot, so no lock is held while writing.
+	 * @param out destination
+	 * @throws IOException if out fails
+	 */
+	@Override
+	public void writeTo(Appendable out) throws IOException{
+		snapshot().writeTo(out);
+	}
+
+	/**
+	 * Return the ScheduleItem at index. The read may be retried under the read lock, but its
+	 * metrics are recorded once, around the whole call.
+	 * @param index index
+	 * @return ScheduleItem at specified index.
+	 */
+	@Override
+	public ScheduleItem getScheduleItem(int index){
+		SchedulerMetrics metrics = getMetrics();
+		if(metrics==null){
+			return optimisticRead(() -> doGetScheduleItem(index));
+		}
+
+		long begin = System.nanoTime();
+		try{
+			return optimisticRead(() -> doGetScheduleItem(index));
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.GET, System.nanoTime() - begin);
+		}
+	}
+
+	/**
+	 * Adds a new ScheduleItem into the list and gives it an id.
+	 * @param ScheduleItem new ScheduleItem
+	 * @return id of the stored ScheduleItem
+	 */
+	@Override
+	public long addScheduleItem(ScheduleItem ScheduleItem){
+		long stamp = lock.writeLock();
+		try{
+			return super.addScheduleItem(ScheduleItem);
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Adds all given ScheduleItems into the list in one bulk load.
+	 * @param items new ScheduleItems
+	 */
+	@Override
+	public void addAll(Collection<ScheduleItem> items){
+		long stamp = lock.writeLock();
+		try{
+			super.addAll(items);
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Moves the ScheduleItem at index to be start at newStart.
+	 * @param index index
+	 * @param newStart new start time
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean moveScheduleItem(int index, TimeSimulator newStart){
+		return write(() -> super.moveScheduleItem(index, newStart));
+	}
+
+	/**
+	 * Changes the duration of ScheduleItem at index to be the given number of minutes.
+	 * @param index index
+	 * @param minute new duration
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean changeDuration(int index, int minute){
+		return write(() -> super.changeDuration(index, minute));
+	}
+
+	/**
+	 * Change the description of ScheduleItem at index.
+	 * @param index index
+	 * @param description new description
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean changeDescription(int index, String description){
+		return write(() -> super.changeDescription(index, description));
+	}
+
+	/**
+	 * Remove the ScheduleItem at index.
+	 * @param index index
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean removeScheduleItem(int index){
+		return write(() -> super.removeScheduleItem(index));
+	}
+
+	/**
+	 * Return the ScheduleItem with the given id.
+	 * @param id id
+	 * @return ScheduleItem, or null if no stored ScheduleItem has the id
+	 */
+	@Override
+	public ScheduleItem getById(long id){
+		return read(() -> super.getById(id));
+	}
+
+	/**
+	 * Return the current index of the ScheduleItem with the given id.
+	 * @param id id
+	 * @return index, or -1 if no stored ScheduleItem has the id
+	 */
+	@Override
+	public int indexOf(long id){
+		return read(() -> super.indexOf(id));
+	}
+
+	/**
+	 * Moves the ScheduleItem with the given id to start at newStart.
+	 * @param id id
+	 * @param newStart new start time
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean moveById(long id, TimeSimulator newStart){
+		return write(() -> super.moveById(id, newStart));
+	}
+
+	/**
+	 * Changes the duration of the ScheduleItem with the given id.
+	 * @param id id
+	 * @param minute new duration
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean changeDurationById(long id, int minute){
+		return write(() -> super.changeDurationById(id, minute));
+	}
+
+	/**
+	 * Change the description of the ScheduleItem with the given id.
+	 * @param id id
+	 * @param description new description
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean changeDescriptionById(long id, String description){
+		return write(() -> super.changeDescriptionById(id, description));
+	}
+
+	/**
+	 * Remove the ScheduleItem with the given id.
+	 * @param id id
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean removeById(long id){
+		return write(() -> super.removeById(id));
+	}
+
+	/**
+	 * Starts recording operation counts, latencies and store gauges.
+	 * @return metrics of this Scheduler, the existing ones if already enabled
+	 */
+	@Override
+	public SchedulerMetrics enableMetrics(){
+		long stamp = lock.writeLock();
+		try{
+			return super.enableMetrics();
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Stops recording metrics and drops the recorded ones.
+	 */
+	@Override
+	public void disableMetrics(){
+		long stamp = lock.writeLock();
+		try{
+			super.disableMetrics();
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Sets the journal every following edit is logged to.
+	 * @param journal journal, or null to stop logging
+	 */
+	@Override
+	public void setJournal(MutationJournal journal){
+		long stamp = lock.writeLock();
+		try{
+			super.setJournal(journal);
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Starts interning descriptions under the write lock.
+	 */
+	@Override
+	public void enableDescriptionInterning(){
+		long stamp = lock.writeLock();
+		try{
+			super.enableDescriptionInterning();
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Stops interning descriptions under the write lock.
+	 */
+	@Override
+	public void disableDescriptionInterning(){
+		long stamp = lock.writeLock();
+		try{
+			super.disableDescriptionInterning();
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns whether descriptions are interned, under the read lock.
+	 * @return true if interned, otherwise false.
+	 */
+	@Override
+	public boolean isDescriptionInterning(){
+		return read(super::isDescriptionInterning);
+	}
+
+	/**
+	 * Saves the ScheduleItems to a binary schedule file under the read lock, so the file and the
+	 * journal position it records match. Saves run one at a time, so two of them never compact
+	 * the journal at once, while readers keep going.
+	 * @param path destination file, replaced if it exists
+	 * @throws IOException if writing fails
+	 */
+	@Override
+	public void saveTo(Path path) throws IOException{
+		synchronized(saveLock){
+			long stamp = lock.readLock();
+			try{
+				super.saveTo(path);
+			}finally{
+				lock.unlockRead(stamp);
+			}
+		}
+	}
+
+	/**
+	 * Returns an immutable, point-in-time view of the ScheduleItems in O(1).
+	 * @return snapshot of the Scheduler
+	 */
+	@Override
+	public SchedulerSnapshot snapshot(){
+		return read(super::snapshot);
+	}
+
+	/**
+	 * Returns a read-only list of the ScheduleItems starting in [from, to). Both ends are found and
+	 * the window is copied under the read lock, so this costs O(log n + k) for k ScheduleItems and
+	 * the list stays valid while other threads edit. Unlike a snapshot, it leaves the store
+	 * unshared, so the next write does not have to copy it.
+	 * @param from earliest start time, inclusive
+	 * @param to latest start time, exclusive
+	 * @return ScheduleItems starting in the window
+	 */
+	@Override
+	public List<ScheduleItem> range(TimeSimulator from, TimeSimulator to){
+		return read(() -> Collections.unmodifiableList(new ArrayList<>(super.range(from, to))));
+	}
+
+	/**
+	 * Returns a sequential stream over a copy of the ScheduleItems taken under the read lock, so
+	 * it runs without locking and is not disturbed by edits from other threads. The copy costs
+	 * O(n) on the calling thread; for a small window use range instead.
+	 * @return stream of ScheduleItems
+	 */
+	@Override
+	public Stream<ScheduleItem> stream(){
+		return Arrays.stream(copyItems());
+	}
+
+	/**
+	 * Returns a parallel stream over a copy of the ScheduleItems taken under the read lock, so it
+	 * runs without locking and is not disturbed by edits from other threads. The copy costs O(n)
+	 * on the calling thread.
+	 * @return parallel stream of ScheduleItems
+	 */
+	@Override
+	public Stream<ScheduleItem> parallelStream(){
+		return Arrays.stream(copyItems()).parallel();
+	}
+
+	/**
+	 * Private helper that copies the ScheduleItems, in order, under the read lock. Unlike a
+	 * snapshot, the copy leaves the store unshared, so the next write does not have to copy it.
+	 * @return ScheduleItems in order
+	 */
+	private ScheduleItem[] copyItems(){
+		return read(() -> super.stream().toArray(ScheduleItem[]::new));
+	}
+
+	/**
+	 * Places the requested tasks under the write lock, so no other edit can take the free time
+	 * between finding and filling it.
+	 * @param requests tasks to place
+	 * @return created ScheduleItems and the requests that did not fit
+	 */
+	@Override
+	public PlacementResult autoPlace(List<TaskRequest> requests){
+		long stamp = lock.writeLock();
+		try{
+			return super.autoPlace(requests);
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns the ScheduleItems overlapping the window [from, to), ordered by start time.
+	 * @param from start of the window
+	 * @param to end of the window
+	 * @return overlapping ScheduleItems
+	 */
+	@Override
+	public List<ScheduleItem> findOverlapping(TimeSimulator from, TimeSimulator to){
+		return read(() -> super.findOverlapping(from, to));
+	}
+
+	/**
+	 * Returns every pair of ScheduleItems that overlap each other.
+	 * @return conflicting pairs, earlier ScheduleItem first
+	 */
+	@Override
+	public List<ScheduleItem[]> findAllConflicts(){
+		return read(super::findAllConflicts);
+	}
+
+	/**
+	 * Adds a recurrence rule under the write lock.
+	 * @param rule new rule
+	 */
+	@Override
+	public void addRule(RecurrenceRule rule){
+		long stamp = lock.writeLock();
+		try{
+			super.addRule(rule);
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Removes a recurrence rule under the write lock.
+	 * @param rule rule to remove
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean removeRule(RecurrenceRule rule){
+		return write(() -> super.removeRule(rule));
+	}
+
+	/**
+	 * Returns the recurrence rules in the order they were added.
+	 * @return rules
+	 */
+	@Override
+	public List<RecurrenceRule> getRules(){
+		return read(super::getRules);
+	}
+
+	/**
+	 * Returns the ScheduleItems and rule occurrences starting in [from, to), merged in start order.
+	 * They are collected under the read lock, so the result can be used while other threads edit.
+	 * @param from earliest start time, inclusive
+	 * @param to latest start time, exclusive
+	 * @return ScheduleItems and occurrences starting in the window
+	 */
+	@Override
+	public Iterable<ScheduleItem> occurrences(TimeSimulator from, TimeSimulator to){
+		return read(() -> {
+			List<ScheduleItem> window = new ArrayList<>();
+			for(ScheduleItem item : super.occurrences(from, to)){
+				window.add(item);
+			}
+			return window;
+		});
+	}
+
+	/**
+	 * Returns the ScheduleItems that book the given resource, in start order.
+	 * @param resource resource
+	 * @return ScheduleItems of the resource
+	 */
+	@Override
+	public List<ScheduleItem> itemsFor(Resource resource){
+		return read(() -> super.itemsFor(resource));
+	}
+
+	/**
+	 * Returns every slot of at least duration minutes in which none of the given resources is booked.
+	 * @param wanted resources that must all be free
+	 * @param duration minimum slot length in minutes
+	 * @return common free slots in order
+	 */
+	@Override
+	public List<ScheduleItem> findCommonFreeSlots(Set<Resource> wanted, int duration){
+		return read(() -> super.findCommonFreeSlots(wanted, duration));
+	}
+
+	/**
+	 * Starts recording edits for undo and redo under the write lock.
+	 * @param limit number of steps kept, at least 1
+	 */
+	@Override
+	public void enableHistory(int limit){
+		long stamp = lock.writeLock();
+		try{
+			super.enableHistory(limit);
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Stops recording edits and drops the history under the write lock.
+	 */
+	@Override
+	public void disableHistory(){
+		long stamp = lock.writeLock();
+		try{
+			super.disableHistory();
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+	/**
+	 * Returns number of edits that can be undone.
+	 * @return undo count, 0 if history is disabled
+	 */
+	@Override
+	public int undoCount(){
+		return read(super::undoCount);
+	}
+
+	/**
+	 * Returns number of undone edits that can be redone.
+	 * @return redo count, 0 if history is disabled
+	 */
+	@Override
+	public int redoCount(){
+		return read(super::redoCount);
+	}
+
+	/**
+	 * Undoes the most recent edit under the write lock.
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean undo(){
+		return write(super::undo);
+	}
+
+	/**
+	 * Redoes the most recently undone edit under the write lock.
+	 * @return true if successful, otherwise false.
+	 */
+	@Override
+	public boolean redo(){
+		return write(super::redo);
+	}
+
+	/**
+	 * Returns every free slot of at least minDurationMinutes minutes, in order.
+	 * @param minDurationMinutes minimum slot length in minutes
+	 * @return free slots
+	 */
+	@Override
+	public List<ScheduleItem> findFreeSlots(int minDurationMinutes){
+		return read(() -> super.findFreeSlots(minDurationMinutes));
+	}
+
+	/**
+	 * Returns the earliest start time, not before notBefore, where duration minutes are free.
+	 * @param duration length of the slot in minutes
+	 * @param notBefore earliest acceptable start time
+	 * @return start time of the slot, or null if nothing fits
+	 */
+	@Override
+	public TimeSimulator firstFitSlot(int duration, TimeSimulator notBefore){
+		return read(() -> super.firstFitSlot(duration, notBefore));
+	}
+
+	/**
+	 * Private helper that runs a read without locking and repeats it under the read lock if a
+	 * write happened meanwhile. An exception from a torn read is treated like a failed validation.
+	 * @param reader read to run
+	 * @param <R> result type
+	 * @return result of the read
+	 */
+	private <R> R optimisticRead(Supplier<R> reader){
+		long stamp = lock.tryOptimisticRead();
+
+		if(stamp!=0){
+			try{
+				R result = reader.get();
+				if(lock.validate(stamp)){
+					return result;
+				}
+			}catch(RuntimeException ex){
+				if(lock.validate(stamp)){
+					throw ex;
+				}
+			}
+		}
+
+		return read(reader);
+	}
+
+	/**
+	 * Private helper that runs a read under the read lock.
+	 * @param reader read to run
+	 * @param <R> result type
+	 * @return result of the read
+	 */
+	private <R> R read(Supplier<R> reader){
+		long stamp = lock.readLock();
+		try{
+			return reader.get();
+		}finally{
+			lock.unlockRead(stamp);
+		}
+	}
+
+	/**
+	 * Private helper that runs an edit under the write lock.
+	 * @param writer edit to run
+	 * @return result of the edit
+	 */
+	private boolean write(Supplier<Boolean> writer){
+		long stamp = lock.writeLock();
+		try{
+			return writer.get();
+		}finally{
+			lock.unlockWrite(stamp);
+		}
+	}
+
+}
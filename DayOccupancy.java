@@ -0,0 +1,264 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * This class represents the occupancy of a single day at minute resolution.
+ * Every minute of the day is one bit, set while at least one ScheduleItem covers it.
+ * ScheduleItems cover the half-open range [start, end), and since no ScheduleItem may end
+ * after 23:59, the last minute of the day is never available.
+ */
+public class DayOccupancy {
+
+	/**
+	 * Number of minutes in a day.
+	 */
+	public static final int MINUTES_PER_DAY = 24 * 60;
+
+	/**
+	 * Latest minute a slot may end at (23:59).
+	 */
+	public static final int LAST_MINUTE = MINUTES_PER_DAY - 1;
+
+	/**
+	 * Number of longs needed for one bit per minute.
+	 */
+	public static final int WORDS = (MINUTES_PER_DAY + 63) >>> 6;
+
+	/**
+	 * Number of ScheduleItems covering each minute.
+	 */
+	private final int[] counts = new int[MINUTES_PER_DAY];
+
+	/**
+	 * One bit per minute, set if the minute is occupied.
+	 */
+	private final long[] bits = new long[WORDS];
+
+	/**
+	 * Marks the minutes covered by the given item as occupied.
+	 *
+	 * @param item item to add
+	 */
+	public void add(ScheduleItem item) {
+		int end = item.getEndMinute();
+		for (int m = item.getStartMinute(); m < end; m++) {
+			if (counts[m]++ == 0) {
+				bits[m >>> 6] |= 1L << m;
+			}
+		}
+	}
+
+	/**
+	 * Marks the minutes covered by all given items as occupied. The cover counts are built from
+	 * a difference array in one pass over the items and one pass over the day.
+	 *
+	 * @param items items to add
+	 */
+	public void addAll(Collection<ScheduleItem> items) {
+		int[] delta = new int[MINUTES_PER_DAY + 1];
+		for (ScheduleItem item : items) {
+			delta[item.getStartMinute()]++;
+			delta[item.getEndMinute()]--;
+		}
+
+		int running = 0;
+		for (int m = 0; m < MINUTES_PER_DAY; m++) {
+			running += delta[m];
+			if (running != 0) {
+				counts[m] += running;
+				if (counts[m] != 0) {
+					bits[m >>> 6] |= 1L << m;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Releases the minutes covered by the given item.
+	 *
+	 * @param item item to remove
+	 */
+	public void remove(ScheduleItem item) {
+		int end = item.getEndMinute();
+		for (int m = item.getStartMinute(); m < end; m++) {
+			if (--counts[m] == 0) {
+				bits[m >>> 6] &= ~(1L << m);
+			}
+		}
+	}
+
+	/**
+	 * Releases every minute of the day.
+	 */
+	public void clear( ) {
+		Arrays.fill(counts, 0);
+		Arrays.fill(bits, 0L);
+	}
+
+	/**
+	 * Returns whether the given minute is occupied.
+	 *
+	 * @param minute minute of day
+	 * @return true if occupied, otherwise false.
+	 */
+	public boolean isOccupied(int minute) {
+		return (bits[minute >>> 6] & (1L << minute)) != 0;
+	}
+
+	/**
+	 * Returns a copy of the occupancy bitmap, one bit per minute.
+	 *
+	 * @return occupancy words
+	 */
+	public long[] toWords( ) {
+		return bits.clone();
+	}
+
+	/**
+	 * ORs the occupancy bitmap into words, e.g. to combine the occupancy of several resources
+	 * without copying each bitmap first.
+	 *
+	 * @param words bitmap of WORDS longs to update
+	 */
+	public void orInto(long[] words) {
+		for (int i = 0; i < WORDS; i++) {
+			words[i] |= bits[i];
+		}
+	}
+
+	/**
+	 * Returns every free slot of at least minDuration minutes as a ScheduleItem with an empty description.
+	 *
+	 * @param minDuration minimum slot length in minutes
+	 * @return free slots in order
+	 */
+	public List<ScheduleItem> findFreeSlots(int minDuration) {
+		return findFreeSlots(bits, minDuration);
+	}
+
+	/**
+	 * Returns the earliest start, not before notBefore, of a free slot of the given length.
+	 *
+	 * @param duration slot length in minutes
+	 * @param notBefore earliest acceptable start
+	 * @return start of the slot, or null if no slot fits
+	 */
+	public TimeSimulator firstFitSlot(int duration, TimeSimulator notBefore) {
+		if (notBefore == null) {
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		int start = firstFit(bits, duration, notBefore.getMinuteOfDay());
+		return start < 0 ? null : TimeSimulator.ofMinuteOfDay(start);
+	}
+
+	/**
+	 * Returns every free slot of at least minDuration minutes in the given occupancy bitmap.
+	 *
+	 * @param words occupancy bitmap, one bit per minute
+	 * @param minDuration minimum slot length in minutes
+	 * @return free slots in order
+	 */
+	public static List<ScheduleItem> findFreeSlots(long[] words, int minDuration) {
+		if (minDuration < 0) {
+			throw new IllegalArgumentException("Duration must be non-negative!");
+		}
+
+		List<ScheduleItem> slots = new ArrayList<>();
+		int from = nextClear(words, 0);
+
+		while (from < LAST_MINUTE) {
+			int to = nextSet(words, from);
+			if (to - from >= minDuration) {
+				slots.add(new ScheduleItem(TimeSimulator.ofMinuteOfDay(from), TimeSimulator.ofMinuteOfDay(to)));
+			}
+			from = nextClear(words, to);
+		}
+
+		return slots;
+	}
+
+	/**
+	 * Returns the earliest start at or after notBefore of a free run of the given length in the
+	 * given occupancy bitmap.
+	 *
+	 * @param words occupancy bitmap, one bit per minute
+	 * @param duration run length in minutes
+	 * @param notBefore earliest acceptable start minute
+	 * @return start minute, or -1 if no run fits
+	 */
+	public static int firstFit(long[] words, int duration, int notBefore) {
+		if (duration < 0) {
+			throw new IllegalArgumentException("Duration must be non-negative!");
+		}
+
+		if (duration == 0) {
+			return notBefore <= LAST_MINUTE ? notBefore : -1;
+		}
+
+		int from = nextClear(words, notBefore);
+
+		while (from + duration <= LAST_MINUTE) {
+			int to = nextSet(words, from);
+			if (to - from >= duration) {
+				return from;
+			}
+			from = nextClear(words, to);
+		}
+
+		return -1;
+	}
+
+	/**
+	 * Returns the first free minute at or after from, or LAST_MINUTE if there is none.
+	 *
+	 * @param words occupancy bitmap
+	 * @param from first minute to look at
+	 * @return free minute
+	 */
+	private static int nextClear(long[] words, int from) {
+		if (from >= LAST_MINUTE) {
+			return LAST_MINUTE;
+		}
+
+		int w = from >>> 6;
+		long word = ~words[w] & (-1L << from);
+
+		while (word == 0) {
+			if (++w == WORDS) {
+				return LAST_MINUTE;
+			}
+			word = ~words[w];
+		}
+
+		return Math.min((w << 6) + Long.numberOfTrailingZeros(word), LAST_MINUTE);
+	}
+
+	/**
+	 * Returns the first occupied minute at or after from, or LAST_MINUTE if there is none.
+	 *
+	 * @param words occupancy bitmap
+	 * @param from first minute to look at
+	 * @return occupied minute
+	 */
+	private static int nextSet(long[] words, int from) {
+		if (from >= LAST_MINUTE) {
+			return LAST_MINUTE;
+		}
+
+		int w = from >>> 6;
+		long word = words[w] & (-1L << from);
+
+		while (word == 0) {
+			if (++w == WORDS) {
+				return LAST_MINUTE;
+			}
+			word = words[w];
+		}
+
+		return Math.min((w << 6) + Long.numberOfTrailingZeros(word), LAST_MINUTE);
+	}
+
+}
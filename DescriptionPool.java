@@ -0,0 +1,344 @@
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class represents a pool of interned descriptions. Every distinct text gets a small int
+ * handle, so equal descriptions have equal handles and can be compared as ints. The text itself
+ * is kept once, in a shared byte arena: one byte per char if every char fits in Latin-1,
+ * otherwise UTF-8. Strings are only built when a handle is resolved with get, and are then
+ * cached, so a schedule with millions of repeated descriptions holds one String per distinct
+ * text that was actually read. The pool is append-only; snapshot() gives an O(1) read-only view
+ * that shares the arena and the String cache.
+ */
+public class DescriptionPool {
+
+	/**
+	 * Initial number of entries.
+	 */
+	private static final int INITIAL_ENTRIES = 16;
+
+	/**
+	 * Initial arena size in bytes.
+	 */
+	private static final int INITIAL_ARENA = 256;
+
+	/**
+	 * Coder of an entry stored one byte per char.
+	 */
+	private static final byte LATIN1 = 0;
+
+	/**
+	 * Coder of an entry stored as UTF-8.
+	 */
+	private static final byte UTF8 = 1;
+
+	/**
+	 * Handle on size, which append sets with release and get reads with acquire.
+	 */
+	private static final VarHandle SIZE;
+
+	static {
+		try {
+			SIZE = MethodHandles.lookup().findVarHandle(DescriptionPool.class, "size", int.class);
+		} catch (ReflectiveOperationException ex) {
+			throw new ExceptionInInitializerError(ex);
+		}
+	}
+
+	/**
+	 * Text of every entry, back to back.
+	 */
+	private byte[] arena;
+
+	/**
+	 * Number of bytes of the arena in use.
+	 */
+	private int arenaSize;
+
+	/**
+	 * Arena offset of each entry.
+	 */
+	private int[] offsets;
+
+	/**
+	 * Length in bytes of each entry.
+	 */
+	private int[] lengths;
+
+	/**
+	 * Coder of each entry.
+	 */
+	private byte[] coders;
+
+	/**
+	 * String hash code of each entry.
+	 */
+	private int[] hashes;
+
+	/**
+	 * Number of entries. Every array write of an entry happens before size is raised past it.
+	 */
+	private int size;
+
+	/**
+	 * Open-addressing hash table of handle + 1 per slot, 0 if empty; null in a snapshot.
+	 */
+	private int[] table;
+
+	/**
+	 * Strings already built, by handle. Shared with snapshots. Only get fills a slot, and only
+	 * after reading size with acquire, so even a reader racing an append decodes a complete
+	 * entry: a slot only ever goes from null to a String equal to the entry, and Strings are
+	 * immutable, so racing writes are harmless.
+	 */
+	private String[] decoded;
+
+	/**
+	 * True if this is a read-only snapshot.
+	 */
+	private final boolean readOnly;
+
+	/**
+	 * Constructor for an empty pool.
+	 */
+	public DescriptionPool( ) {
+		arena = new byte[INITIAL_ARENA];
+		offsets = new int[INITIAL_ENTRIES];
+		lengths = new int[INITIAL_ENTRIES];
+		coders = new byte[INITIAL_ENTRIES];
+		hashes = new int[INITIAL_ENTRIES];
+		table = new int[INITIAL_ENTRIES * 2];
+		decoded = new String[INITIAL_ENTRIES];
+		readOnly = false;
+	}
+
+	/**
+	 * Constructor for a read-only view sharing the arrays, including the String cache, of the
+	 * given pool. Entries added to the pool later lie past the end of the view and are never read
+	 * through it.
+	 *
+	 * @param source pool to share
+	 */
+	private DescriptionPool(DescriptionPool source) {
+		arena = source.arena;
+		arenaSize = source.arenaSize;
+		offsets = source.offsets;
+		lengths = source.lengths;
+		coders = source.coders;
+		hashes = source.hashes;
+		size = source.size;
+		table = null;
+		decoded = source.decoded;
+		readOnly = true;
+	}
+
+	/**
+	 * Returns number of distinct descriptions.
+	 *
+	 * @return size of pool
+	 */
+	public int size( ) {
+		return size;
+	}
+
+	/**
+	 * Returns number of arena bytes holding text.
+	 *
+	 * @return bytes in use
+	 */
+	public int byteSize( ) {
+		return arenaSize;
+	}
+
+	/**
+	 * Returns a read-only, point-in-time view of this pool in O(1). Nothing is copied; Strings
+	 * already built stay cached for the view.
+	 *
+	 * @return read-only snapshot
+	 */
+	public DescriptionPool snapshot( ) {
+		return new DescriptionPool(this);
+	}
+
+	/**
+	 * Returns the handle of the given text, adding it if new. Null is treated as "".
+	 *
+	 * @param text description
+	 * @return handle
+	 */
+	public int intern(String text) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Cannot modify: read-only snapshot!");
+		}
+
+		String key = text == null ? "" : text;
+		int hash = key.hashCode();
+		int mask = table.length - 1;
+		int slot = spread(hash) & mask;
+
+		while (table[slot] != 0) {
+			int handle = table[slot] - 1;
+			if (hashes[handle] == hash && matches(handle, key)) {
+				return handle;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		int handle = append(key, hash);
+		table[slot] = handle + 1;
+		if (size * 2 > table.length) {
+			rehash(table.length * 2);
+		}
+		return handle;
+	}
+
+	/**
+	 * Returns the handle of the given text without adding it.
+	 *
+	 * @param text description
+	 * @return handle, or -1 if the text is not in the pool
+	 */
+	public int find(String text) {
+		String key = text == null ? "" : text;
+		int hash = key.hashCode();
+
+		if (table == null) {
+			for (int handle = 0; handle < size; handle++) {
+				if (hashes[handle] == hash && matches(handle, key)) {
+					return handle;
+				}
+			}
+			return -1;
+		}
+
+		int mask = table.length - 1;
+		for (int slot = spread(hash) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+			int handle = table[slot] - 1;
+			if (hashes[handle] == hash && matches(handle, key)) {
+				return handle;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Returns the text of a handle. The String is built on first use and cached. Safe to call
+	 * without a lock while another thread interns: the bound check reads size with acquire, so
+	 * the entry and the arrays holding it are seen complete before the String is cached.
+	 *
+	 * @param handle handle returned by intern
+	 * @return description
+	 */
+	public String get(int handle) {
+		if (handle < 0 || handle >= (int) SIZE.getAcquire(this)) {
+			throw new IndexOutOfBoundsException("Index " + handle + " out of bounds!");
+		}
+
+		String text = decoded[handle];
+		if (text == null) {
+			text = new String(arena, offsets[handle], lengths[handle], coders[handle] == LATIN1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+			decoded[handle] = text;
+		}
+		return text;
+	}
+
+	/**
+	 * Private method that checks whether an entry holds the given text.
+	 *
+	 * @param handle handle
+	 * @param text text
+	 * @return true if equal, otherwise false.
+	 */
+	private boolean matches(int handle, String text) {
+		if (decoded[handle] != null) {
+			return decoded[handle].equals(text);
+		}
+
+		if (coders[handle] == UTF8) {
+			return get(handle).equals(text);
+		}
+
+		int length = lengths[handle];
+		if (length != text.length()) {
+			return false;
+		}
+
+		int offset = offsets[handle];
+		for (int i = 0; i < length; i++) {
+			if ((arena[offset + i] & 0xFF) != text.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Private method that stores new text in the arena and returns its handle.
+	 *
+	 * @param text text
+	 * @param hash String hash code of text
+	 * @return handle
+	 */
+	private int append(String text, int hash) {
+		byte coder = LATIN1;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) > 0xFF) {
+				coder = UTF8;
+				break;
+			}
+		}
+		byte[] bytes = text.getBytes(coder == LATIN1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+
+		if (size == offsets.length) {
+			int grown = size * 2;
+			offsets = Arrays.copyOf(offsets, grown);
+			lengths = Arrays.copyOf(lengths, grown);
+			coders = Arrays.copyOf(coders, grown);
+			hashes = Arrays.copyOf(hashes, grown);
+			decoded = Arrays.copyOf(decoded, grown);
+		}
+		if (arenaSize + bytes.length > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + bytes.length));
+		}
+
+		System.arraycopy(bytes, 0, arena, arenaSize, bytes.length);
+		offsets[size] = arenaSize;
+		lengths[size] = bytes.length;
+		coders[size] = coder;
+		hashes[size] = hash;
+		arenaSize += bytes.length;
+		int handle = size;
+		SIZE.setRelease(this, handle + 1);
+		return handle;
+	}
+
+	/**
+	 * Private method that rebuilds the hash table with the given number of slots.
+	 *
+	 * @param slots number of slots, a power of two
+	 */
+	private void rehash(int slots) {
+		table = new int[slots];
+		int mask = slots - 1;
+		for (int handle = 0; handle < size; handle++) {
+			int slot = spread(hashes[handle]) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = handle + 1;
+		}
+	}
+
+	/**
+	 * Private method that mixes the high bits of a hash code into the low ones.
+	 *
+	 * @param hash hash code
+	 * @return mixed hash
+	 */
+	private static int spread(int hash) {
+		return (hash ^ (hash >>> 16)) * 0x9E3779B9;
+	}
+
+}
@@ -0,0 +1,141 @@
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * This class represents the bounded undo/redo history of a Scheduler, see
+ * Scheduler.enableHistory(int). Every edit is recorded as the ScheduleItems it took out and the
+ * ones it put in. Stored ScheduleItems are read-only and keep their id across edits, so a step
+ * only holds references to values the schedule already had, and undoing it takes out the new
+ * ones and puts the old ones back. Memory grows with the number of edits kept, not with the
+ * size of the schedule.
+ */
+class EditHistory {
+
+	/**
+	 * One recorded edit.
+	 */
+	static final class Step {
+
+		/**
+		 * ScheduleItems the edit took out.
+		 */
+		final ScheduleItem[] before;
+
+		/**
+		 * ScheduleItems the edit put in.
+		 */
+		final ScheduleItem[] after;
+
+		/**
+		 * Constructor for a step.
+		 *
+		 * @param before ScheduleItems the edit took out
+		 * @param after ScheduleItems the edit put in
+		 */
+		Step(ScheduleItem[] before, ScheduleItem[] after) {
+			this.before = before;
+			this.after = after;
+		}
+	}
+
+	/**
+	 * Shared empty array.
+	 */
+	static final ScheduleItem[] NONE = new ScheduleItem[0];
+
+	/**
+	 * Steps that can be undone, most recent first.
+	 */
+	private final Deque<Step> undo = new ArrayDeque<>();
+
+	/**
+	 * Steps that can be redone, most recently undone first.
+	 */
+	private final Deque<Step> redo = new ArrayDeque<>();
+
+	/**
+	 * Largest number of steps kept.
+	 */
+	private final int limit;
+
+	/**
+	 * Constructor for a history of at most limit steps.
+	 *
+	 * @param limit number of steps kept, at least 1
+	 */
+	EditHistory(int limit) {
+		if (limit < 1) {
+			throw new IllegalArgumentException("History must keep at least 1 step!");
+		}
+		this.limit = limit;
+	}
+
+	/**
+	 * Records a new edit. Drops the oldest step if the history is full, and every redo step.
+	 *
+	 * @param before ScheduleItems the edit took out
+	 * @param after ScheduleItems the edit put in
+	 */
+	void record(ScheduleItem[] before, ScheduleItem[] after) {
+		if (undo.size() == limit) {
+			undo.removeLast();
+		}
+		undo.push(new Step(before, after));
+		redo.clear();
+	}
+
+	/**
+	 * Records a new edit of a single ScheduleItem.
+	 *
+	 * @param before ScheduleItem the edit took out, or null
+	 * @param after ScheduleItem the edit put in, or null
+	 */
+	void record(ScheduleItem before, ScheduleItem after) {
+		record(before == null ? NONE : new ScheduleItem[] {before}, after == null ? NONE : new ScheduleItem[] {after});
+	}
+
+	/**
+	 * Returns number of steps that can be undone.
+	 *
+	 * @return undo count
+	 */
+	int undoCount( ) {
+		return undo.size();
+	}
+
+	/**
+	 * Returns number of steps that can be redone.
+	 *
+	 * @return redo count
+	 */
+	int redoCount( ) {
+		return redo.size();
+	}
+
+	/**
+	 * Moves the most recent step to the redo side and returns it.
+	 *
+	 * @return step to undo, or null if there is none
+	 */
+	Step undo( ) {
+		Step step = undo.poll();
+		if (step != null) {
+			redo.push(step);
+		}
+		return step;
+	}
+
+	/**
+	 * Moves the most recently undone step back to the undo side and returns it.
+	 *
+	 * @return step to redo, or null if there is none
+	 */
+	Step redo( ) {
+		Step step = redo.poll();
+		if (step != null) {
+			undo.push(step);
+		}
+		return step;
+	}
+
+}
@@ -0,0 +1,156 @@
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * This class represents the free time of a day as a sorted map of disjoint half-open intervals
+ * [start, end) in minutes, for placing many tasks in a row. Next to the map, a max segment tree
+ * over the start minutes holds the length of the interval starting at each minute, so finding
+ * the first interval at or after a given minute that is long enough takes O(log n) instead of a
+ * scan over every short gap in between. A reservation splits a single interval.
+ */
+public class FreeIntervals {
+
+	/**
+	 * Number of leaves of the segment tree, a power of two covering every minute of the day.
+	 */
+	private static final int LEAVES = Integer.highestOneBit(DayOccupancy.MINUTES_PER_DAY - 1) << 1;
+
+	/**
+	 * End of each free interval, keyed by its start.
+	 */
+	private final TreeMap<Integer, Integer> intervals = new TreeMap<>();
+
+	/**
+	 * Max segment tree; leaf LEAVES + m holds the length of the interval starting at minute m.
+	 */
+	private final int[] tree = new int[2 * LEAVES];
+
+	/**
+	 * Constructor for the free time of the given occupancy bitmap.
+	 *
+	 * @param words occupancy bitmap, one bit per minute, as returned by DayOccupancy.toWords()
+	 */
+	public FreeIntervals(long[] words) {
+		if (words == null) {
+			throw new IllegalArgumentException("Null occupancy bitmap!");
+		}
+
+		for (ScheduleItem slot : DayOccupancy.findFreeSlots(words, 1)) {
+			intervals.put(slot.getStartMinute(), slot.getEndMinute());
+			tree[LEAVES + slot.getStartMinute()] = slot.getEndMinute() - slot.getStartMinute();
+		}
+		for (int i = LEAVES - 1; i > 0; i--) {
+			tree[i] = Math.max(tree[2 * i], tree[2 * i + 1]);
+		}
+	}
+
+	/**
+	 * Returns number of free intervals.
+	 *
+	 * @return interval count
+	 */
+	public int size( ) {
+		return intervals.size();
+	}
+
+	/**
+	 * Returns the length of the longest free interval.
+	 *
+	 * @return length in minutes, 0 if no time is free
+	 */
+	public int longest( ) {
+		return tree[1];
+	}
+
+	/**
+	 * Returns the earliest start of a free run of duration minutes that starts at or after
+	 * notBefore and ends at or before deadline.
+	 *
+	 * @param duration run length in minutes
+	 * @param notBefore earliest start minute
+	 * @param deadline latest end minute
+	 * @return start minute, or -1 if no run fits
+	 */
+	public int firstFit(int duration, int notBefore, int deadline) {
+		if (duration > longest()) {
+			return -1;
+		}
+
+		// the interval containing notBefore can only be used from notBefore on
+		Map.Entry<Integer, Integer> containing = intervals.floorEntry(notBefore);
+		if (containing != null && containing.getValue() - notBefore >= duration) {
+			return notBefore + duration <= deadline ? notBefore : -1;
+		}
+
+		int start = firstAtLeast(1, 0, LEAVES, notBefore + 1, duration);
+		return start >= 0 && start + duration <= deadline ? start : -1;
+	}
+
+	/**
+	 * Marks [start, end) as taken. The range must lie inside one free interval, as returned by
+	 * firstFit.
+	 *
+	 * @param start start minute
+	 * @param end end minute
+	 */
+	public void reserve(int start, int end) {
+		Map.Entry<Integer, Integer> interval = intervals.floorEntry(start);
+		if (interval == null || interval.getValue() < end) {
+			throw new IllegalArgumentException("Range is not free!");
+		}
+
+		int freeStart = interval.getKey();
+		int freeEnd = interval.getValue();
+		intervals.remove(freeStart);
+		setLength(freeStart, 0);
+		if (freeStart < start) {
+			intervals.put(freeStart, start);
+			setLength(freeStart, start - freeStart);
+		}
+		if (end < freeEnd) {
+			intervals.put(end, freeEnd);
+			setLength(end, freeEnd - end);
+		}
+	}
+
+	/**
+	 * Private method that sets the length of the interval starting at a minute and updates the
+	 * maxima above it.
+	 *
+	 * @param minute start minute
+	 * @param length length in minutes, 0 if no interval starts there
+	 */
+	private void setLength(int minute, int length) {
+		int i = LEAVES + minute;
+		tree[i] = length;
+		for (i >>>= 1; i > 0; i >>>= 1) {
+			tree[i] = Math.max(tree[2 * i], tree[2 * i + 1]);
+		}
+	}
+
+	/**
+	 * Private method that returns the first minute at or after from in the subtree of node,
+	 * covering [low, high), where an interval of at least length minutes starts.
+	 *
+	 * @param node tree node
+	 * @param low first minute covered by node
+	 * @param high minute past the last one covered by node
+	 * @param from first minute to look at
+	 * @param length minimum interval length
+	 * @return start minute, or -1 if there is none
+	 */
+	private int firstAtLeast(int node, int low, int high, int from, int length) {
+		if (high <= from || tree[node] < length) {
+			return -1;
+		}
+
+		if (node >= LEAVES) {
+			return low;
+		}
+
+		int mid = (low + high) >>> 1;
+		int found = firstAtLeast(2 * node, low, mid, from, length);
+		return found >= 0 ? found : firstAtLeast(2 * node + 1, mid, high, from, length);
+	}
+
+}
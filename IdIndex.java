@@ -0,0 +1,285 @@
+import java.util.Arrays;
+
+/**
+ * This class represents a hash index from ScheduleItem id to ScheduleItem.
+ * Ids are kept in a primitive long array with open addressing and linear probing, so lookups
+ * neither box keys nor allocate entries. Id 0 marks an empty slot and cannot be stored.
+ * An index that keeps start minutes only holds no ScheduleItem objects at all; it costs a long
+ * and a short per slot and answers startOf and contains, while get always returns null.
+ */
+public class IdIndex {
+
+	/**
+	 * Initial number of slots, a power of two.
+	 */
+	private static final int INITIAL_SLOTS = 16;
+
+	/**
+	 * Multiplier of the Fibonacci hash.
+	 */
+	private static final long GOLDEN = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * Id in each slot, 0 if empty.
+	 */
+	private long[] keys;
+
+	/**
+	 * ScheduleItem in each slot, or null if only start minutes are kept.
+	 */
+	private ScheduleItem[] values;
+
+	/**
+	 * Start minute of the ScheduleItem in each slot.
+	 */
+	private short[] starts;
+
+	/**
+	 * True if the ScheduleItems themselves are kept.
+	 */
+	private final boolean keepItems;
+
+	/**
+	 * Number of stored ids.
+	 */
+	private int size;
+
+	/**
+	 * Number of bits of a slot index.
+	 */
+	private int bits;
+
+	/**
+	 * Constructor for an empty index.
+	 */
+	public IdIndex( ) {
+		this(true);
+	}
+
+	/**
+	 * Constructor for an empty index.
+	 *
+	 * @param keepItems false to keep only ids and start minutes, e.g. next to a columnar store
+	 */
+	public IdIndex(boolean keepItems) {
+		this.keepItems = keepItems;
+		allocate(INITIAL_SLOTS);
+	}
+
+	/**
+	 * Returns number of stored ids.
+	 *
+	 * @return size of index
+	 */
+	public int size( ) {
+		return size;
+	}
+
+	/**
+	 * Stores the given ScheduleItem under its id, replacing any ScheduleItem stored with that id.
+	 *
+	 * @param item ScheduleItem with an id other than 0
+	 */
+	public void put(ScheduleItem item) {
+		if (item == null) {
+			throw new IllegalArgumentException("Null ScheduleItem object!");
+		}
+
+		long id = item.getId();
+		if (id == 0) {
+			throw new IllegalArgumentException("ScheduleItem has no id!");
+		}
+
+		int mask = keys.length - 1;
+		int slot = slotOf(id);
+		while (keys[slot] != 0) {
+			if (keys[slot] == id) {
+				store(slot, item);
+				return;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		keys[slot] = id;
+		store(slot, item);
+		size++;
+
+		if (size * 2 > keys.length) {
+			rehash(keys.length * 2);
+		}
+	}
+
+	/**
+	 * Returns the ScheduleItem stored under id.
+	 *
+	 * @param id id
+	 * @return ScheduleItem, or null if none or if only start minutes are kept
+	 */
+	public ScheduleItem get(long id) {
+		int slot = find(id);
+		return slot < 0 || !keepItems ? null : values[slot];
+	}
+
+	/**
+	 * Returns the start minute of the ScheduleItem stored under id.
+	 *
+	 * @param id id
+	 * @return start minute, or -1 if none
+	 */
+	public int startOf(long id) {
+		int slot = find(id);
+		return slot < 0 ? -1 : starts[slot];
+	}
+
+	/**
+	 * Returns whether a ScheduleItem is stored under id.
+	 *
+	 * @param id id
+	 * @return true if stored, otherwise false.
+	 */
+	public boolean contains(long id) {
+		return find(id) >= 0;
+	}
+
+	/**
+	 * Removes the ScheduleItem stored under id.
+	 *
+	 * @param id id
+	 * @return removed ScheduleItem, or null if none
+	 */
+	public ScheduleItem remove(long id) {
+		if (id == 0) {
+			return null;
+		}
+
+		int mask = keys.length - 1;
+		int slot = slotOf(id);
+		while (keys[slot] != id) {
+			if (keys[slot] == 0) {
+				return null;
+			}
+			slot = (slot + 1) & mask;
+		}
+
+		ScheduleItem removed = keepItems ? values[slot] : null;
+		size--;
+
+		// shift later entries of the probe run back so lookups never stop at the hole
+		int hole = slot;
+		int next = (slot + 1) & mask;
+		while (keys[next] != 0) {
+			int home = slotOf(keys[next]);
+			if (((next - home) & mask) >= ((next - hole) & mask)) {
+				keys[hole] = keys[next];
+				starts[hole] = starts[next];
+				if (keepItems) {
+					values[hole] = values[next];
+				}
+				hole = next;
+			}
+			next = (next + 1) & mask;
+		}
+		keys[hole] = 0;
+		if (keepItems) {
+			values[hole] = null;
+		}
+
+		return removed;
+	}
+
+	/**
+	 * Removes every id.
+	 */
+	public void clear( ) {
+		Arrays.fill(keys, 0);
+		if (keepItems) {
+			Arrays.fill(values, null);
+		}
+		size = 0;
+	}
+
+	/**
+	 * Private method that returns the slot holding id.
+	 *
+	 * @param id id
+	 * @return slot index, or -1 if id is not stored
+	 */
+	private int find(long id) {
+		if (id == 0) {
+			return -1;
+		}
+
+		int mask = keys.length - 1;
+		int slot = slotOf(id);
+		while (keys[slot] != 0) {
+			if (keys[slot] == id) {
+				return slot;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return -1;
+	}
+
+	/**
+	 * Private method that writes the value of item into a slot.
+	 *
+	 * @param slot slot index
+	 * @param item ScheduleItem
+	 */
+	private void store(int slot, ScheduleItem item) {
+		starts[slot] = (short) item.getStartMinute();
+		if (keepItems) {
+			values[slot] = item;
+		}
+	}
+
+	/**
+	 * Private method that returns the home slot of an id.
+	 *
+	 * @param id id
+	 * @return slot index
+	 */
+	private int slotOf(long id) {
+		return (int) ((id * GOLDEN) >>> (64 - bits));
+	}
+
+	/**
+	 * Private method that allocates empty arrays with the given number of slots.
+	 *
+	 * @param slots number of slots, a power of two
+	 */
+	private void allocate(int slots) {
+		keys = new long[slots];
+		starts = new short[slots];
+		values = keepItems ? new ScheduleItem[slots] : null;
+		bits = Integer.numberOfTrailingZeros(slots);
+	}
+
+	/**
+	 * Private method that moves every entry into arrays with the given number of slots.
+	 *
+	 * @param slots number of slots, a power of two
+	 */
+	private void rehash(int slots) {
+		long[] oldKeys = keys;
+		short[] oldStarts = starts;
+		ScheduleItem[] oldValues = values;
+		allocate(slots);
+
+		int mask = slots - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != 0) {
+				int slot = slotOf(oldKeys[i]);
+				while (keys[slot] != 0) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				starts[slot] = oldStarts[i];
+				if (keepItems) {
+					values[slot] = oldValues[i];
+				}
+			}
+		}
+	}
+
+}
@@ -0,0 +1,512 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class represents an overlap index over ScheduleItems.
+ * Items are kept in a treap ordered by start time, where every node also stores the
+ * latest end time found in its subtree so that overlap queries can skip whole subtrees.
+ * Intervals are half-open: an item covers [start, end).
+ * Items are matched on removal by identity first and otherwise by value, so a store that hands
+ * out a new ScheduleItem per lookup can still remove the entry it added earlier.
+ */
+public class IntervalIndex {
+
+	/**
+	 * A node of the treap.
+	 */
+	private static final class Node {
+
+		/**
+		 * Indexed item.
+		 */
+		private final ScheduleItem item;
+
+		/**
+		 * Start minute at the time the item was indexed.
+		 */
+		private final int start;
+
+		/**
+		 * End minute at the time the item was indexed.
+		 */
+		private final int end;
+
+		/**
+		 * Insertion sequence, used to order nodes with equal start and end.
+		 */
+		private final long seq;
+
+		/**
+		 * Heap priority.
+		 */
+		private int priority;
+
+		/**
+		 * Latest end minute in this subtree.
+		 */
+		private int maxEnd;
+
+		/**
+		 * Left child.
+		 */
+		private Node left;
+
+		/**
+		 * Right child.
+		 */
+		private Node right;
+
+		/**
+		 * Constructor for a node.
+		 *
+		 * @param item indexed item
+		 * @param start start minute
+		 * @param end end minute
+		 * @param seq insertion sequence
+		 * @param priority heap priority
+		 */
+		private Node(ScheduleItem item, int start, int end, long seq, int priority) {
+			this.item = item;
+			this.start = start;
+			this.end = end;
+			this.seq = seq;
+			this.priority = priority;
+			this.maxEnd = end;
+		}
+	}
+
+	/**
+	 * Batch size from which addAll rebuilds the treap instead of inserting item by item.
+	 */
+	private static final int REBUILD_THRESHOLD = 1024;
+
+	/**
+	 * Root of the treap.
+	 */
+	private Node root;
+
+	/**
+	 * Number of indexed items.
+	 */
+	private int size;
+
+	/**
+	 * Next insertion sequence.
+	 */
+	private long nextSeq;
+
+	/**
+	 * State of the priority generator.
+	 */
+	private int seed = 0x2545F491;
+
+	/**
+	 * Returns number of indexed items.
+	 *
+	 * @return number of items
+	 */
+	public int size( ) {
+		return size;
+	}
+
+	/**
+	 * Adds the given item to the index using its current start and end time.
+	 *
+	 * @param item item to add
+	 */
+	public void add(ScheduleItem item) {
+		if (item == null) {
+			throw new IllegalArgumentException("Null ScheduleItem object!");
+		}
+
+		Node node = new Node(item, item.getStartMinute(), item.getEndMinute(), nextSeq++, nextPriority());
+		root = insert(root, node);
+		size++;
+	}
+
+	/**
+	 * Adds all given items to the index. A batch that is large compared to the index is merged
+	 * with the existing entries and the treap is rebuilt balanced in linear time, instead of
+	 * inserting the items one by one.
+	 *
+	 * @param items items to add
+	 */
+	public void addAll(Collection<ScheduleItem> items) {
+		if (items.size() < REBUILD_THRESHOLD || items.size() < size / 8) {
+			for (ScheduleItem item : items) {
+				add(item);
+			}
+			return;
+		}
+
+		ScheduleItem[] batch = items.toArray(new ScheduleItem[0]);
+		long[] order = new long[batch.length];
+		for (int n = 0; n < batch.length; n++) {
+			if (batch[n] == null) {
+				throw new IllegalArgumentException("Null ScheduleItem object!");
+			}
+			long key = ((long) batch[n].getStartMinute() << 11) | batch[n].getEndMinute();
+			order[n] = (key << 32) | n;
+		}
+		Arrays.sort(order);
+
+		Node[] added = new Node[batch.length];
+		for (int n = 0; n < batch.length; n++) {
+			ScheduleItem item = batch[(int) order[n]];
+			added[n] = new Node(item, item.getStartMinute(), item.getEndMinute(), nextSeq++, 0);
+		}
+
+		Node[] existing = new Node[size];
+		inOrder(root, existing, 0);
+
+		Node[] merged = new Node[existing.length + added.length];
+		int i = 0;
+		int j = 0;
+		for (int k = 0; k < merged.length; k++) {
+			merged[k] = (j == added.length || (i < existing.length && compare(existing[i], added[j]) <= 0)) ? existing[i++] : added[j++];
+		}
+
+		root = build(merged, 0, merged.length, 0);
+		size = merged.length;
+	}
+
+	/**
+	 * Removes the given item from the index. Must be called while the item still has the
+	 * start and end time it was indexed with.
+	 *
+	 * @param item item to remove
+	 * @return true if the item was indexed, otherwise false.
+	 */
+	public boolean remove(ScheduleItem item) {
+		if (item == null) {
+			return false;
+		}
+
+		Node node = find(root, item.getStartMinute(), item.getEndMinute(), item);
+
+		if (node == null) {
+			return false;
+		}
+
+		root = delete(root, node);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Removes all items from the index.
+	 */
+	public void clear( ) {
+		root = null;
+		size = 0;
+	}
+
+	/**
+	 * Returns all items overlapping [from, to), ordered by start time.
+	 *
+	 * @param from start of the window
+	 * @param to end of the window
+	 * @return overlapping items
+	 */
+	public List<ScheduleItem> findOverlapping(TimeSimulator from, TimeSimulator to) {
+		if (from == null || to == null) {
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		List<ScheduleItem> result = new ArrayList<>();
+		collect(root, from.getMinuteOfDay(), to.getMinuteOfDay(), result);
+		return result;
+	}
+
+	/**
+	 * Returns every pair of indexed items that overlap each other. The earlier item of each pair
+	 * comes first.
+	 *
+	 * @return conflicting pairs
+	 */
+	public List<ScheduleItem[]> findAllConflicts( ) {
+		Node[] ordered = new Node[size];
+		inOrder(root, ordered, 0);
+
+		List<ScheduleItem[]> result = new ArrayList<>();
+
+		for (int i = 0; i < ordered.length; i++) {
+			Node current = ordered[i];
+			for (int j = i + 1; j < ordered.length && ordered[j].start < current.end; j++) {
+				if (ordered[j].end > current.start) {
+					result.add(new ScheduleItem[] {current.item, ordered[j].item});
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Private helper that collects items overlapping [from, to) in start order.
+	 *
+	 * @param node subtree root
+	 * @param from start minute of window
+	 * @param to end minute of window
+	 * @param out result list
+	 */
+	private void collect(Node node, int from, int to, List<ScheduleItem> out) {
+		if (node == null || node.maxEnd <= from) {
+			return;
+		}
+
+		collect(node.left, from, to, out);
+
+		if (node.start >= to) {
+			return;
+		}
+
+		if (node.end > from) {
+			out.add(node.item);
+		}
+
+		collect(node.right, from, to, out);
+	}
+
+	/**
+	 * Private helper that finds the node of the given item among the nodes with the given start
+	 * and end. A node holding the item itself wins over one holding an equal item.
+	 *
+	 * @param node subtree root
+	 * @param start start minute
+	 * @param end end minute
+	 * @param item item to find
+	 * @return matching node, or null if there is none
+	 */
+	private Node find(Node node, int start, int end, ScheduleItem item) {
+		Node found = null;
+
+		while (node != null) {
+			int cmp = start != node.start ? Integer.compare(start, node.start) : Integer.compare(end, node.end);
+
+			if (cmp < 0) {
+				node = node.left;
+			} else if (cmp > 0) {
+				node = node.right;
+			} else {
+				if (node.item == item) {
+					return node;
+				}
+				if (found == null && Objects.equals(node.item.getDescription(), item.getDescription())) {
+					found = node;
+				}
+
+				Node left = find(node.left, start, end, item);
+				if (left != null && (left.item == item || found == null)) {
+					if (left.item == item) {
+						return left;
+					}
+					found = left;
+				}
+				node = node.right;
+			}
+		}
+
+		return found;
+	}
+
+	/**
+	 * Private helper that writes the subtree in key order into the given array.
+	 *
+	 * @param node subtree root
+	 * @param out destination
+	 * @param pos next free position
+	 * @return next free position after the subtree
+	 */
+	private int inOrder(Node node, Node[] out, int pos) {
+		while (node != null) {
+			pos = inOrder(node.left, out, pos);
+			out[pos++] = node;
+			node = node.right;
+		}
+		return pos;
+	}
+
+	/**
+	 * Private helper that links nodes[from, to), which are in key order, into a balanced subtree.
+	 * Priorities fall with depth, which keeps the heap order of the treap.
+	 *
+	 * @param nodes nodes in key order
+	 * @param from first node
+	 * @param to end of the range
+	 * @param depth depth of the subtree root
+	 * @return subtree root
+	 */
+	private Node build(Node[] nodes, int from, int to, int depth) {
+		if (from >= to) {
+			return null;
+		}
+
+		int mid = (from + to) >>> 1;
+		Node node = nodes[mid];
+		node.priority = Integer.MAX_VALUE - depth;
+		node.left = build(nodes, from, mid, depth + 1);
+		node.right = build(nodes, mid + 1, to, depth + 1);
+		refresh(node);
+		return node;
+	}
+
+	/**
+	 * Private helper that inserts a node into the subtree.
+	 *
+	 * @param node subtree root
+	 * @param added node to insert
+	 * @return new subtree root
+	 */
+	private Node insert(Node node, Node added) {
+		if (node == null) {
+			return added;
+		}
+
+		if (compare(added, node) < 0) {
+			node.left = insert(node.left, added);
+			if (node.left.priority > node.priority) {
+				node = rotateRight(node);
+			}
+		} else {
+			node.right = insert(node.right, added);
+			if (node.right.priority > node.priority) {
+				node = rotateLeft(node);
+			}
+		}
+
+		refresh(node);
+		return node;
+	}
+
+	/**
+	 * Private helper that deletes a node from the subtree.
+	 *
+	 * @param node subtree root
+	 * @param removed node to delete
+	 * @return new subtree root
+	 */
+	private Node delete(Node node, Node removed) {
+		if (node == null) {
+			return null;
+		}
+
+		if (node == removed) {
+			return merge(node.left, node.right);
+		}
+
+		if (compare(removed, node) < 0) {
+			node.left = delete(node.left, removed);
+		} else {
+			node.right = delete(node.right, removed);
+		}
+
+		refresh(node);
+		return node;
+	}
+
+	/**
+	 * Private helper that merges two subtrees where every key of left precedes every key of right.
+	 *
+	 * @param left left subtree
+	 * @param right right subtree
+	 * @return merged subtree
+	 */
+	private Node merge(Node left, Node right) {
+		if (left == null) {
+			return right;
+		}
+		if (right == null) {
+			return left;
+		}
+
+		if (left.priority > right.priority) {
+			left.right = merge(left.right, right);
+			refresh(left);
+			return left;
+		}
+
+		right.left = merge(left, right.left);
+		refresh(right);
+		return right;
+	}
+
+	/**
+	 * Private helper for a right rotation.
+	 *
+	 * @param node subtree root
+	 * @return new subtree root
+	 */
+	private Node rotateRight(Node node) {
+		Node pivot = node.left;
+		node.left = pivot.right;
+		pivot.right = node;
+		refresh(node);
+		refresh(pivot);
+		return pivot;
+	}
+
+	/**
+	 * Private helper for a left rotation.
+	 *
+	 * @param node subtree root
+	 * @return new subtree root
+	 */
+	private Node rotateLeft(Node node) {
+		Node pivot = node.right;
+		node.right = pivot.left;
+		pivot.left = node;
+		refresh(node);
+		refresh(pivot);
+		return pivot;
+	}
+
+	/**
+	 * Private helper that recomputes the latest end time of a node.
+	 *
+	 * @param node node to refresh
+	 */
+	private void refresh(Node node) {
+		int max = node.end;
+		if (node.left != null && node.left.maxEnd > max) {
+			max = node.left.maxEnd;
+		}
+		if (node.right != null && node.right.maxEnd > max) {
+			max = node.right.maxEnd;
+		}
+		node.maxEnd = max;
+	}
+
+	/**
+	 * Private helper that orders nodes by start time, then end time, then insertion.
+	 *
+	 * @param a first node
+	 * @param b second node
+	 * @return negative, zero or positive as a is before, same as or after b
+	 */
+	private int compare(Node a, Node b) {
+		if (a.start != b.start) {
+			return Integer.compare(a.start, b.start);
+		}
+		if (a.end != b.end) {
+			return Integer.compare(a.end, b.end);
+		}
+		return Long.compare(a.seq, b.seq);
+	}
+
+	/**
+	 * Private helper that returns the next heap priority.
+	 *
+	 * @return priority
+	 */
+	private int nextPriority( ) {
+		seed ^= seed << 13;
+		seed ^= seed >>> 17;
+		seed ^= seed << 5;
+		return seed;
+	}
+
+}
@@ -0,0 +1,205 @@
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class represents a fixed-size latency histogram in the style of HdrHistogram.
+ * Values below 128 get a bucket each; above that, every power of two is split into 64 buckets,
+ * so any recorded value is reported within 1.6% of its true value. All buckets are allocated
+ * up front, and recording is a few atomic increments without allocation, safe from any thread.
+ */
+public class LatencyHistogram {
+
+	/**
+	 * Number of bits of each value kept exactly.
+	 */
+	private static final int SUB_BITS = 7;
+
+	/**
+	 * Number of linear buckets for small values.
+	 */
+	private static final int LINEAR = 1 << SUB_BITS;
+
+	/**
+	 * Number of buckets per power of two above the linear range.
+	 */
+	private static final int HALF = LINEAR >> 1;
+
+	/**
+	 * Total number of buckets, enough for any non-negative long.
+	 */
+	private static final int BUCKETS = LINEAR + (63 - SUB_BITS + 1) * HALF;
+
+	/**
+	 * Count of each bucket.
+	 */
+	private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+	/**
+	 * Number of recorded values.
+	 */
+	private final AtomicLong count = new AtomicLong();
+
+	/**
+	 * Sum of recorded values.
+	 */
+	private final AtomicLong total = new AtomicLong();
+
+	/**
+	 * Largest recorded value.
+	 */
+	private final AtomicLong max = new AtomicLong();
+
+	/**
+	 * Records one value. Negative values are recorded as 0.
+	 *
+	 * @param value value, e.g. a latency in nanoseconds
+	 */
+	public void record(long value) {
+		long v = Math.max(value, 0);
+		counts.incrementAndGet(indexOf(v));
+		count.incrementAndGet();
+		total.addAndGet(v);
+
+		long current = max.get();
+		while (v > current && !max.compareAndSet(current, v)) {
+			current = max.get();
+		}
+	}
+
+	/**
+	 * Returns number of recorded values.
+	 *
+	 * @return count
+	 */
+	public long getCount( ) {
+		return count.get();
+	}
+
+	/**
+	 * Returns the largest recorded value.
+	 *
+	 * @return max, 0 if nothing was recorded
+	 */
+	public long getMax( ) {
+		return max.get();
+	}
+
+	/**
+	 * Returns the mean of the recorded values.
+	 *
+	 * @return mean, 0 if nothing was recorded
+	 */
+	public double getMean( ) {
+		long n = count.get();
+		return n == 0 ? 0 : (double) total.get() / n;
+	}
+
+	/**
+	 * Returns the value below which the given percentage of recorded values fall, rounded up to
+	 * the top of its bucket.
+	 *
+	 * @param percentile percentage between 0 and 100
+	 * @return value at percentile, 0 if nothing was recorded
+	 */
+	public long getValueAtPercentile(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100!");
+		}
+
+		long n = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			n += counts.get(i);
+		}
+		if (n == 0) {
+			return 0;
+		}
+
+		long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts.get(i);
+			if (seen >= rank) {
+				return Math.min(highestValueOf(i), max.get());
+			}
+		}
+		return max.get();
+	}
+
+	/**
+	 * Returns a copy of this histogram.
+	 *
+	 * @return copy
+	 */
+	public LatencyHistogram copy( ) {
+		LatencyHistogram copy = new LatencyHistogram();
+		for (int i = 0; i < BUCKETS; i++) {
+			long c = counts.get(i);
+			if (c != 0) {
+				copy.counts.set(i, c);
+			}
+		}
+		copy.count.set(count.get());
+		copy.total.set(total.get());
+		copy.max.set(max.get());
+		return copy;
+	}
+
+	/**
+	 * Clears every recorded value.
+	 */
+	public void reset( ) {
+		for (int i = 0; i < BUCKETS; i++) {
+			counts.set(i, 0);
+		}
+		count.set(0);
+		total.set(0);
+		max.set(0);
+	}
+
+	/**
+	 * Return a string representation of the histogram: count, mean, percentiles and max.
+	 *
+	 * @return string representation of histogram
+	 */
+	public String toString( ) {
+		return "count=" + getCount()
+				+ " mean=" + Math.round(getMean())
+				+ " p50=" + getValueAtPercentile(50)
+				+ " p90=" + getValueAtPercentile(90)
+				+ " p99=" + getValueAtPercentile(99)
+				+ " p99.9=" + getValueAtPercentile(99.9)
+				+ " max=" + getMax();
+	}
+
+	/**
+	 * Private method that returns the bucket of a non-negative value.
+	 *
+	 * @param value value
+	 * @return bucket index
+	 */
+	private static int indexOf(long value) {
+		if (value < LINEAR) {
+			return (int) value;
+		}
+
+		int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BITS - 1);
+		return LINEAR + (shift - 1) * HALF + (int) (value >>> shift) - HALF;
+	}
+
+	/**
+	 * Private method that returns the largest value falling into a bucket.
+	 *
+	 * @param index bucket index
+	 * @return largest value of the bucket
+	 */
+	private static long highestValueOf(int index) {
+		if (index < LINEAR) {
+			return index;
+		}
+
+		int shift = (index - LINEAR) / HALF + 1;
+		long top = (index - LINEAR) % HALF + HALF;
+		return ((top + 1) << shift) - 1;
+	}
+
+}
@@ -0,0 +1,919 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * This class represents an append-only write-ahead journal of Scheduler mutations.
+ * Mutations are encoded into an in-memory batch and returned to the caller at once; a background
+ * writer thread writes each batch with a single FileChannel write and forces it to disk at most
+ * once per fsync interval, so many mutations share one fsync (group commit). sync() waits until
+ * everything appended so far is on disk.
+ * <pre>
+ * header = int magic "TSJN", long base position
+ * record = int length, byte op, payload, int CRC32 of op and payload
+ * item   = short start minute, short end minute, string description,
+ *          and for the tagged add ops: short number of resources, string name of each
+ * </pre>
+ * Records are addressed by byte position, counted from the start of the journal's history; the
+ * base position is the position of the first record still in the file. A snapshot written by
+ * Scheduler.saveTo remembers the position it covers, and recovery replays the records after it.
+ * Once the snapshot is durable, compact cuts off the records before it and raises the base, so
+ * positions stay valid. A torn record at the end of the journal, left by a crash, is ignored by
+ * replay and cut off by open. Files written without a header count as base position 0.
+ */
+public class MutationJournal implements AutoCloseable {
+
+	/**
+	 * Op code of addScheduleItem.
+	 */
+	private static final byte OP_ADD = 1;
+
+	/**
+	 * Op code of addAll.
+	 */
+	private static final byte OP_ADD_ALL = 2;
+
+	/**
+	 * Op code of moveScheduleItem.
+	 */
+	private static final byte OP_MOVE = 3;
+
+	/**
+	 * Op code of changeDuration.
+	 */
+	private static final byte OP_DURATION = 4;
+
+	/**
+	 * Op code of changeDescription.
+	 */
+	private static final byte OP_DESCRIPTION = 5;
+
+	/**
+	 * Op code of removeScheduleItem.
+	 */
+	private static final byte OP_REMOVE = 6;
+
+	/**
+	 * Op code of addScheduleItem for an item with resources.
+	 */
+	private static final byte OP_ADD_TAGGED = 7;
+
+	/**
+	 * Op code of addAll for items of which at least one has resources.
+	 */
+	private static final byte OP_ADD_ALL_TAGGED = 8;
+
+	/**
+	 * Initial size of the batch buffers.
+	 */
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	/**
+	 * Header magic, "TSJN".
+	 */
+	private static final int MAGIC = 0x54534A4E;
+
+	/**
+	 * Bytes of the header.
+	 */
+	private static final int HEADER_BYTES = 12;
+
+	/**
+	 * Bytes replay maps at a time; a longer record gets a window of its own.
+	 */
+	private static final int REPLAY_WINDOW_BYTES = 64 << 20;
+
+	/**
+	 * Path of the journal file.
+	 */
+	private final Path path;
+
+	/**
+	 * Journal file, replaced by compact.
+	 */
+	private FileChannel channel;
+
+	/**
+	 * Journal position of the first record in the file.
+	 */
+	private long base;
+
+	/**
+	 * Bytes before the first record in the file, 0 for a file without a header.
+	 */
+	private int headerBytes;
+
+	/**
+	 * Longest time written records may stay unforced, in nanoseconds.
+	 */
+	private final long fsyncIntervalNanos;
+
+	/**
+	 * Guards every field below.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * Batch being filled by appending threads.
+	 */
+	private ByteBuffer pending = ByteBuffer.allocate(BUFFER_SIZE);
+
+	/**
+	 * Batch being written by the writer thread.
+	 */
+	private ByteBuffer spare = ByteBuffer.allocate(BUFFER_SIZE);
+
+	/**
+	 * Checksum of the record being appended.
+	 */
+	private final CRC32 crc = new CRC32();
+
+	/**
+	 * Journal position after the last appended record.
+	 */
+	private long appended;
+
+	/**
+	 * Journal position up to which records are forced to disk.
+	 */
+	private long durable;
+
+	/**
+	 * Number of threads waiting in sync().
+	 */
+	private int syncWaiters;
+
+	/**
+	 * True while the writer thread writes a batch outside the lock.
+	 */
+	private boolean writing;
+
+	/**
+	 * True once close() was called.
+	 */
+	private boolean closed;
+
+	/**
+	 * First error of the writer thread, if any.
+	 */
+	private IOException failure;
+
+	/**
+	 * Background writer thread.
+	 */
+	private final Thread writer;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param path journal file
+	 * @param channel journal file, positioned at its end
+	 * @param base journal position of the first record in the file
+	 * @param headerBytes bytes before the first record in the file
+	 * @param fsyncIntervalMillis longest time written records may stay unforced
+	 * @throws IOException if the position cannot be read
+	 */
+	private MutationJournal(Path path, FileChannel channel, long base, int headerBytes, long fsyncIntervalMillis) throws IOException {
+		this.path = path;
+		this.channel = channel;
+		this.base = base;
+		this.headerBytes = headerBytes;
+		this.fsyncIntervalNanos = fsyncIntervalMillis * 1_000_000L;
+		this.appended = base + channel.position() - headerBytes;
+		this.durable = appended;
+		this.writer = new Thread(this::writeLoop, "MutationJournal-writer");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	/**
+	 * Opens a journal for appending at the given position. Anything after the position, such as
+	 * a torn record found by replay, is cut off. A missing journal, or one that ends before the
+	 * position because a snapshot already covers all of it, is started afresh at the position.
+	 *
+	 * @param path journal file, created if missing
+	 * @param position position after the last valid record, as returned by replay
+	 * @param fsyncIntervalMillis longest time written records may stay unforced; 0 forces every batch
+	 * @return open journal
+	 * @throws IOException if the file cannot be opened or starts after position
+	 */
+	public static MutationJournal open(Path path, long position, long fsyncIntervalMillis) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Null Path object!");
+		}
+
+		if (position < 0 || fsyncIntervalMillis < 0) {
+			throw new IllegalArgumentException("Position and fsync interval must be non-negative!");
+		}
+
+		if (!Files.exists(path) || Files.size(path) == 0) {
+			rewrite(path, position, null, 0);
+		}
+
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+		try {
+			int header = readHeaderBytes(channel, path);
+			long base = header == 0 ? 0 : readBase(channel);
+
+			if (base > position) {
+				throw new IOException("Journal starts after position " + position + ": " + path);
+			}
+
+			if (base + channel.size() - header < position) {
+				channel.close();
+				rewrite(path, position, null, 0);
+				channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+				header = HEADER_BYTES;
+				base = position;
+			}
+
+			long offset = header + (position - base);
+			channel.truncate(offset);
+			channel.position(offset);
+			return new MutationJournal(path, channel, base, header, fsyncIntervalMillis);
+		} catch (IOException ex) {
+			channel.close();
+			throw ex;
+		}
+	}
+
+	/**
+	 * Opens a journal for appending at its current end.
+	 *
+	 * @param path journal file, created if missing
+	 * @param fsyncIntervalMillis longest time written records may stay unforced; 0 forces every batch
+	 * @return open journal
+	 * @throws IOException if the file cannot be opened
+	 */
+	public static MutationJournal open(Path path, long fsyncIntervalMillis) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Null Path object!");
+		}
+
+		if (!Files.exists(path) || Files.size(path) == 0) {
+			return open(path, 0, fsyncIntervalMillis);
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			int header = readHeaderBytes(channel, path);
+			long base = header == 0 ? 0 : readBase(channel);
+			return open(path, base + channel.size() - header, fsyncIntervalMillis);
+		}
+	}
+
+	/**
+	 * Returns the journal position after the last appended record.
+	 *
+	 * @return position
+	 */
+	public long position( ) {
+		synchronized (lock) {
+			return appended;
+		}
+	}
+
+	/**
+	 * Returns the journal position of the first record still in the file.
+	 *
+	 * @return base position
+	 */
+	public long basePosition( ) {
+		synchronized (lock) {
+			return base;
+		}
+	}
+
+	/**
+	 * Returns the journal position up to which records are known to be on disk.
+	 *
+	 * @return durable position
+	 */
+	public long durablePosition( ) {
+		synchronized (lock) {
+			return durable;
+		}
+	}
+
+	/**
+	 * Appends an addScheduleItem record.
+	 *
+	 * @param item added item
+	 * @return journal position after the record
+	 */
+	public long logAdd(ScheduleItem item) {
+		boolean tagged = !item.getResources().isEmpty();
+		synchronized (lock) {
+			int start = beginRecord(tagged ? OP_ADD_TAGGED : OP_ADD);
+			putItem(item, tagged);
+			return endRecord(start);
+		}
+	}
+
+	/**
+	 * Appends an addAll record.
+	 *
+	 * @param items added items
+	 * @return journal position after the record
+	 */
+	public long logAddAll(Collection<ScheduleItem> items) {
+		boolean tagged = false;
+		for (ScheduleItem item : items) {
+			tagged |= !item.getResources().isEmpty();
+		}
+
+		synchronized (lock) {
+			int start = beginRecord(tagged ? OP_ADD_ALL_TAGGED : OP_ADD_ALL);
+			reserve(4);
+			pending.putInt(items.size());
+			for (ScheduleItem item : items) {
+				putItem(item, tagged);
+			}
+			return endRecord(start);
+		}
+	}
+
+	/**
+	 * Appends a moveScheduleItem record.
+	 *
+	 * @param index index of the moved item
+	 * @param newStart new start minute
+	 * @return journal position after the record
+	 */
+	public long logMove(int index, int newStart) {
+		synchronized (lock) {
+			int start = beginRecord(OP_MOVE);
+			reserve(6);
+			pending.putInt(index);
+			pending.putShort((short) newStart);
+			return endRecord(start);
+		}
+	}
+
+	/**
+	 * Appends a changeDuration record.
+	 *
+	 * @param index index of the changed item
+	 * @param minute new duration
+	 * @return journal position after the record
+	 */
+	public long logDuration(int index, int minute) {
+		synchronized (lock) {
+			int start = beginRecord(OP_DURATION);
+			reserve(8);
+			pending.putInt(index);
+			pending.putInt(minute);
+			return endRecord(start);
+		}
+	}
+
+	/**
+	 * Appends a changeDescription record.
+	 *
+	 * @param index index of the changed item
+	 * @param description new description
+	 * @return journal position after the record
+	 */
+	public long logDescription(int index, String description) {
+		synchronized (lock) {
+			int start = beginRecord(OP_DESCRIPTION);
+			reserve(4);
+			pending.putInt(index);
+			putString(description);
+			return endRecord(start);
+		}
+	}
+
+	/**
+	 * Appends a removeScheduleItem record.
+	 *
+	 * @param index index of the removed item
+	 * @return journal position after the record
+	 */
+	public long logRemove(int index) {
+		synchronized (lock) {
+			int start = beginRecord(OP_REMOVE);
+			reserve(4);
+			pending.putInt(index);
+			return endRecord(start);
+		}
+	}
+
+	/**
+	 * Waits until every record appended so far is forced to disk.
+	 *
+	 * @throws IOException if the writer failed
+	 */
+	public void sync( ) throws IOException {
+		synchronized (lock) {
+			long target = appended;
+			syncWaiters++;
+			lock.notifyAll();
+			try {
+				while (durable < target && failure == null) {
+					lock.wait();
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the journal", ex);
+			} finally {
+				syncWaiters--;
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+		}
+	}
+
+	/**
+	 * Cuts off the records before position, once a durable snapshot covers them, so the journal
+	 * does not grow without bound. The kept records are copied behind a new header into a file
+	 * next to the journal, which is forced to disk and moved over it, so a crash leaves either the
+	 * old or the new journal. Positions do not change; older snapshots can no longer be
+	 * recovered with this journal.
+	 *
+	 * @param position journal position the snapshot covers
+	 * @throws IOException if writing fails
+	 */
+	public void compact(long position) throws IOException {
+		sync();
+
+		synchronized (lock) {
+			try {
+				while ((writing || pending.position() > 0) && failure == null) {
+					lock.wait();
+				}
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while waiting for the journal", ex);
+			}
+
+			if (failure != null) {
+				throw failure;
+			}
+			if (closed) {
+				throw new IllegalStateException("Journal is closed!");
+			}
+			if (position < base || position > appended) {
+				throw new IllegalArgumentException("Position is outside the journal!");
+			}
+
+			rewrite(path, position, channel, headerBytes + (position - base));
+			channel.close();
+			channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+			channel.position(channel.size());
+			base = position;
+			headerBytes = HEADER_BYTES;
+			durable = appended;
+		}
+	}
+
+	/**
+	 * Forces every appended record to disk, stops the writer and closes the file.
+	 *
+	 * @throws IOException if writing or closing fails
+	 */
+	@Override
+	public void close( ) throws IOException {
+		try {
+			sync();
+		} finally {
+			synchronized (lock) {
+				closed = true;
+				lock.notifyAll();
+			}
+			try {
+				writer.join();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+			channel.close();
+		}
+	}
+
+	/**
+	 * Applies the records of a journal, starting at position, to the given Scheduler. The
+	 * Scheduler's own journal is detached while replaying so the records are not logged again.
+	 * The file is mapped in windows, so journals larger than 2 GiB replay as well.
+	 * Replay stops at the end of the file or at the first torn or corrupt record. A journal that
+	 * ends before position has nothing the snapshot does not already cover, so nothing is applied.
+	 *
+	 * @param path journal file; a missing file counts as empty
+	 * @param position position to start at, usually the one stored in the last snapshot
+	 * @param target Scheduler to apply the records to
+	 * @return position after the last applied record
+	 * @throws IOException if reading fails or the journal starts after position
+	 */
+	public static long replay(Path path, long position, Scheduler target) throws IOException {
+		if (path == null || target == null) {
+			throw new IllegalArgumentException("Null argument!");
+		}
+
+		if (!Files.exists(path)) {
+			return position;
+		}
+
+		MutationJournal attached = target.getJournal();
+		target.setJournal(null);
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = channel.size();
+			int header = readHeaderBytes(channel, path);
+			long base = header == 0 ? 0 : readBase(channel);
+
+			if (base > position) {
+				throw new IOException("Journal starts after position " + position + ": " + path);
+			}
+			if (base + size - header <= position) {
+				return position;
+			}
+
+			long start = header + (position - base);
+			long offset = start;
+			long windowStart = offset;
+			MappedByteBuffer window = null;
+			CRC32 check = new CRC32();
+
+			while (size - offset >= 4) {
+				if (window == null || offset - windowStart + 4 > window.limit()) {
+					windowStart = offset;
+					window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(REPLAY_WINDOW_BYTES, size - offset));
+				}
+
+				int at = (int) (offset - windowStart);
+				int length = window.getInt(at);
+				long recordBytes = 4L + length + 4;
+				if (length < 1 || size - offset < recordBytes || recordBytes > Integer.MAX_VALUE) {
+					break;
+				}
+				if (at + recordBytes > window.limit()) {
+					windowStart = offset;
+					at = 0;
+					window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.max(recordBytes, Math.min(REPLAY_WINDOW_BYTES, size - offset)));
+				}
+
+				ByteBuffer record = window.duplicate();
+				record.limit(at + 4 + length).position(at + 4);
+				record = record.slice();
+				check.reset();
+				check.update(record.duplicate());
+				if ((int) check.getValue() != window.getInt(at + 4 + length)) {
+					break;
+				}
+
+				try {
+					apply(record, target);
+				} catch (BufferUnderflowException | IllegalArgumentException ex) {
+					break;
+				}
+				offset += recordBytes;
+			}
+
+			return position + (offset - start);
+		} finally {
+			target.setJournal(attached);
+		}
+	}
+
+	/**
+	 * Private method that returns the number of header bytes of a journal file: HEADER_BYTES, or
+	 * 0 for an empty file or one written without a header.
+	 *
+	 * @param channel journal file
+	 * @param path journal file, for messages
+	 * @return header bytes
+	 * @throws IOException if reading fails or the header is torn
+	 */
+	private static int readHeaderBytes(FileChannel channel, Path path) throws IOException {
+		if (channel.size() < 4) {
+			return 0;
+		}
+
+		ByteBuffer magic = ByteBuffer.allocate(4);
+		while (magic.hasRemaining() && channel.read(magic, magic.position()) >= 0) {
+			// keep reading until the magic is complete
+		}
+		if (magic.getInt(0) != MAGIC) {
+			return 0;
+		}
+		if (channel.size() < HEADER_BYTES) {
+			throw new IOException("Corrupt journal header: " + path);
+		}
+		return HEADER_BYTES;
+	}
+
+	/**
+	 * Private method that reads the base position from the header of a journal file.
+	 *
+	 * @param channel journal file with a header
+	 * @return base position
+	 * @throws IOException if reading fails
+	 */
+	private static long readBase(FileChannel channel) throws IOException {
+		ByteBuffer base = ByteBuffer.allocate(8);
+		while (base.hasRemaining() && channel.read(base, 4 + base.position()) >= 0) {
+			// keep reading until the position is complete
+		}
+		return base.getLong(0);
+	}
+
+	/**
+	 * Private method that replaces a journal file with a header for the given base position,
+	 * followed by the bytes of source from offset on. The new file is written to a uniquely named
+	 * temporary file next to path, forced to disk and moved over path.
+	 *
+	 * @param path journal file
+	 * @param base base position of the new file
+	 * @param source file to copy records from, or null for none
+	 * @param offset first byte of source to copy
+	 * @throws IOException if writing fails
+	 */
+	private static void rewrite(Path path, long base, FileChannel source, long offset) throws IOException {
+		Path temp = ScheduleFile.createTemp(path);
+
+		try {
+			try (FileChannel out = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+				ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+				header.putInt(MAGIC).putLong(base).flip();
+				while (header.hasRemaining()) {
+					out.write(header);
+				}
+
+				if (source != null) {
+					long size = source.size();
+					while (offset < size) {
+						offset += source.transferTo(offset, size - offset, out);
+					}
+				}
+				out.force(true);
+			}
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Private method that applies one record to a Scheduler.
+	 *
+	 * @param record op code and payload
+	 * @param target Scheduler
+	 */
+	private static void apply(ByteBuffer record, Scheduler target) {
+		byte op = record.get();
+
+		switch (op) {
+			case OP_ADD:
+			case OP_ADD_TAGGED:
+				target.addScheduleItem(getItem(record, op == OP_ADD_TAGGED));
+				break;
+			case OP_ADD_ALL:
+			case OP_ADD_ALL_TAGGED:
+				int count = record.getInt();
+				List<ScheduleItem> items = new ArrayList<>(Math.min(count, record.remaining() / 8));
+				for (int i = 0; i < count; i++) {
+					items.add(getItem(record, op == OP_ADD_ALL_TAGGED));
+				}
+				target.addAll(items);
+				break;
+			case OP_MOVE:
+				target.moveScheduleItem(record.getInt(), TimeSimulator.ofMinuteOfDay(record.getShort()));
+				break;
+			case OP_DURATION:
+				target.changeDuration(record.getInt(), record.getInt());
+				break;
+			case OP_DESCRIPTION:
+				target.changeDescription(record.getInt(), getString(record));
+				break;
+			case OP_REMOVE:
+				target.removeScheduleItem(record.getInt());
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown journal op " + op);
+		}
+	}
+
+	/**
+	 * Private method that starts a record in the pending batch.
+	 *
+	 * @param op op code
+	 * @return position of the record in the batch
+	 */
+	private int beginRecord(byte op) {
+		if (closed) {
+			throw new IllegalStateException("Journal is closed!");
+		}
+		if (failure != null) {
+			throw new UncheckedIOException("Journal writer failed", failure);
+		}
+
+		reserve(5);
+		int start = pending.position();
+		pending.putInt(0);
+		pending.put(op);
+		return start;
+	}
+
+	/**
+	 * Private method that finishes the record started at start: fills in its length, appends its
+	 * checksum and wakes the writer.
+	 *
+	 * @param start position of the record in the batch
+	 * @return journal position after the record
+	 */
+	private long endRecord(int start) {
+		int length = pending.position() - start - 4;
+		pending.putInt(start, length);
+
+		ByteBuffer body = pending.duplicate();
+		body.position(start + 4).limit(start + 4 + length);
+		crc.reset();
+		crc.update(body);
+
+		reserve(4);
+		pending.putInt((int) crc.getValue());
+
+		appended += length + 8;
+		lock.notifyAll();
+		return appended;
+	}
+
+	/**
+	 * Private method that makes room for bytes more bytes in the pending batch.
+	 *
+	 * @param bytes number of bytes needed
+	 */
+	private void reserve(int bytes) {
+		if (pending.remaining() < bytes) {
+			ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+			pending.flip();
+			bigger.put(pending);
+			pending = bigger;
+		}
+	}
+
+	/**
+	 * Private method that encodes an item into the pending batch.
+	 *
+	 * @param item item
+	 * @param tagged true to write the resources of the item
+	 */
+	private void putItem(ScheduleItem item, boolean tagged) {
+		reserve(4);
+		pending.putShort((short) item.getStartMinute());
+		pending.putShort((short) item.getEndMinute());
+		putString(item.getDescription());
+
+		if (tagged) {
+			reserve(2);
+			pending.putShort((short) item.getResources().size());
+			for (Resource resource : item.getResources()) {
+				putString(resource.getName());
+			}
+		}
+	}
+
+	/**
+	 * Private method that encodes a string into the pending batch.
+	 *
+	 * @param text string, null is written as empty
+	 */
+	private void putString(String text) {
+		byte[] bytes = (text == null ? "" : text).getBytes(StandardCharsets.UTF_8);
+		reserve(4 + bytes.length);
+		pending.putInt(bytes.length);
+		pending.put(bytes);
+	}
+
+	/**
+	 * Private method that decodes an item.
+	 *
+	 * @param record record being read
+	 * @param tagged true if the resources of the item follow
+	 * @return item
+	 */
+	private static ScheduleItem getItem(ByteBuffer record, boolean tagged) {
+		TimeSimulator start = TimeSimulator.ofMinuteOfDay(record.getShort());
+		TimeSimulator end = TimeSimulator.ofMinuteOfDay(record.getShort());
+		String description = getString(record);
+
+		int count = tagged ? record.getShort() & 0xFFFF : 0;
+		if (count == 0) {
+			return new ScheduleItem(start, end, description);
+		}
+
+		Set<Resource> resources = new HashSet<>();
+		for (int i = 0; i < count; i++) {
+			resources.add(new Resource(getString(record)));
+		}
+		return new ScheduleItem(start, end, description, resources);
+	}
+
+	/**
+	 * Private method that decodes a string.
+	 *
+	 * @param record record being read
+	 * @return string
+	 */
+	private static String getString(ByteBuffer record) {
+		int length = record.getInt();
+		if (length < 0 || length > record.remaining()) {
+			throw new IllegalArgumentException("Corrupt journal string");
+		}
+		byte[] bytes = new byte[length];
+		record.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Private method run by the writer thread. Swaps out the pending batch, writes it, and forces
+	 * the file when the fsync interval has passed, a sync() is waiting or the journal is closing.
+	 */
+	private void writeLoop( ) {
+		long lastForce = System.nanoTime();
+
+		while (true) {
+			ByteBuffer batch;
+			long batchEnd;
+			boolean force;
+			FileChannel out;
+
+			synchronized (lock) {
+				try {
+					while (true) {
+						boolean unforced = durable < appended;
+						if (pending.position() > 0 || (unforced && (syncWaiters > 0 || closed))) {
+							break;
+						}
+						if (closed) {
+							return;
+						}
+						if (unforced) {
+							long wait = fsyncIntervalNanos - (System.nanoTime() - lastForce);
+							if (wait <= 0) {
+								break;
+							}
+							lock.wait(Math.max(wait / 1_000_000L, 1));
+						} else {
+							lock.wait();
+						}
+					}
+				} catch (InterruptedException ex) {
+					return;
+				}
+
+				batch = pending;
+				pending = spare;
+				spare = batch;
+				batchEnd = appended;
+				force = syncWaiters > 0 || closed || System.nanoTime() - lastForce >= fsyncIntervalNanos;
+				out = channel;
+				writing = true;
+			}
+
+			try {
+				batch.flip();
+				while (batch.hasRemaining()) {
+					out.write(batch);
+				}
+				batch.clear();
+
+				if (force) {
+					out.force(false);
+					lastForce = System.nanoTime();
+				}
+			} catch (IOException ex) {
+				synchronized (lock) {
+					writing = false;
+					failure = ex;
+					lock.notifyAll();
+				}
+				return;
+			}
+
+			synchronized (lock) {
+				writing = false;
+				if (force) {
+					durable = batchEnd;
+				}
+				lock.notifyAll();
+			}
+		}
+	}
+
+}
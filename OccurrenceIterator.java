@@ -0,0 +1,92 @@
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * This class represents an iterator that merges the stored ScheduleItems of a window with the
+ * occurrences of RecurrenceRules in the same window, in start order. Occurrences are created one
+ * at a time as the iterator reaches them. On equal start times, stored ScheduleItems come first,
+ * then rules in the order given.
+ */
+class OccurrenceIterator implements Iterator<ScheduleItem> {
+
+	/**
+	 * Stored ScheduleItems starting in the window, in order.
+	 */
+	private final List<ScheduleItem> stored;
+
+	/**
+	 * Next index in stored.
+	 */
+	private int index;
+
+	/**
+	 * Rules to expand.
+	 */
+	private final RecurrenceRule[] rules;
+
+	/**
+	 * Next occurrence of each rule.
+	 */
+	private final int[] next;
+
+	/**
+	 * Occurrence of each rule past the last one in the window.
+	 */
+	private final int[] fence;
+
+	/**
+	 * Constructor for the ScheduleItems starting in [from, to).
+	 *
+	 * @param stored stored ScheduleItems starting in the window, in order
+	 * @param rules rules to expand
+	 * @param from first start minute, inclusive
+	 * @param to last start minute, exclusive
+	 */
+	OccurrenceIterator(List<ScheduleItem> stored, RecurrenceRule[] rules, int from, int to) {
+		this.stored = stored;
+		this.rules = rules;
+		this.next = new int[rules.length];
+		this.fence = new int[rules.length];
+
+		for (int r = 0; r < rules.length; r++) {
+			next[r] = rules[r].firstStartingAtOrAfter(from);
+			fence[r] = Math.max(next[r], rules[r].firstStartingAtOrAfter(to));
+		}
+	}
+
+	@Override
+	public boolean hasNext( ) {
+		if (index < stored.size()) {
+			return true;
+		}
+		for (int r = 0; r < rules.length; r++) {
+			if (next[r] < fence[r]) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public ScheduleItem next( ) {
+		int best = -1;
+		int bestStart = index < stored.size() ? stored.get(index).getStartMinute() : Integer.MAX_VALUE;
+
+		for (int r = 0; r < rules.length; r++) {
+			if (next[r] < fence[r] && rules[r].startMinute(next[r]) < bestStart) {
+				best = r;
+				bestStart = rules[r].startMinute(next[r]);
+			}
+		}
+
+		if (best >= 0) {
+			return rules[best].occurrence(next[best]++);
+		}
+		if (index < stored.size()) {
+			return stored.get(index++);
+		}
+		throw new NoSuchElementException();
+	}
+
+}
@@ -0,0 +1,59 @@
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class represents the outcome of Scheduler.autoPlace: the ScheduleItems created for the
+ * requests that fit, and the requests that did not.
+ */
+public class PlacementResult {
+
+	/**
+	 * Created ScheduleItems, in request order.
+	 */
+	private final List<ScheduleItem> placed;
+
+	/**
+	 * Requests that could not be placed, in request order.
+	 */
+	private final List<TaskRequest> unplaced;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param placed created ScheduleItems
+	 * @param unplaced requests that could not be placed
+	 */
+	PlacementResult(List<ScheduleItem> placed, List<TaskRequest> unplaced) {
+		this.placed = Collections.unmodifiableList(placed);
+		this.unplaced = Collections.unmodifiableList(unplaced);
+	}
+
+	/**
+	 * Returns the ScheduleItems created for the requests that fit, in request order. They are
+	 * stored in the Scheduler and carry their ids.
+	 *
+	 * @return placed ScheduleItems
+	 */
+	public List<ScheduleItem> getPlaced( ) {
+		return placed;
+	}
+
+	/**
+	 * Returns the requests that could not be placed, in request order.
+	 *
+	 * @return unplaced requests
+	 */
+	public List<TaskRequest> getUnplaced( ) {
+		return unplaced;
+	}
+
+	/**
+	 * Returns true if every request was placed.
+	 *
+	 * @return true if nothing was left over, otherwise false.
+	 */
+	public boolean isComplete( ) {
+		return unplaced.isEmpty();
+	}
+
+}
@@ -0,0 +1,208 @@
+/**
+ * This class represents a repeating ScheduleItem: duration minutes starting at firstStart and
+ * then every interval minutes up to lastStart. The rule is stored once and its occurrences are
+ * only created as ScheduleItems when a query reaches them, so a schedule with thousands of
+ * repeating slots costs no more memory than one with a single rule. Occurrences that would end
+ * after 23:59 are left out.
+ */
+public class RecurrenceRule {
+
+	/**
+	 * Latest minute of the day an occurrence may end at (23:59).
+	 */
+	private static final int MAX_MINUTE = DayOccupancy.LAST_MINUTE;
+
+	/**
+	 * Start minute of the first occurrence.
+	 */
+	private final int first;
+
+	/**
+	 * Minutes between the starts of two occurrences.
+	 */
+	private final int interval;
+
+	/**
+	 * Number of occurrences.
+	 */
+	private final int count;
+
+	/**
+	 * Length of each occurrence in minutes.
+	 */
+	private final int duration;
+
+	/**
+	 * Description of each occurrence.
+	 */
+	private final String description;
+
+	/**
+	 * Constructor for this class.
+	 *
+	 * @param firstStart start time of the first occurrence
+	 * @param duration length of each occurrence in minutes, at least 1
+	 * @param interval minutes between the starts of two occurrences, at least 1
+	 * @param lastStart latest start time of an occurrence
+	 * @param description description of each occurrence
+	 */
+	public RecurrenceRule(TimeSimulator firstStart, int duration, int interval, TimeSimulator lastStart, String description) {
+		if (firstStart == null || lastStart == null) {
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		if (duration < 1) {
+			throw new IllegalArgumentException("Duration must be at least 1 minute!");
+		}
+
+		if (interval < 1) {
+			throw new IllegalArgumentException("Interval must be at least 1 minute!");
+		}
+
+		int last = Math.min(lastStart.getMinuteOfDay(), MAX_MINUTE - duration);
+		if (last < firstStart.getMinuteOfDay()) {
+			throw new IllegalArgumentException("Rule has no occurrence that fits in the day!");
+		}
+
+		this.first = firstStart.getMinuteOfDay();
+		this.interval = interval;
+		this.count = (last - first) / interval + 1;
+		this.duration = duration;
+		this.description = description == null ? "" : description;
+	}
+
+	/**
+	 * Returns a rule with a single occurrence a day, for use in a ScheduleCalendar.
+	 *
+	 * @param start start time
+	 * @param duration length in minutes, at least 1
+	 * @param description description
+	 * @return rule
+	 */
+	public static RecurrenceRule once(TimeSimulator start, int duration, String description) {
+		return new RecurrenceRule(start, duration, DayOccupancy.MINUTES_PER_DAY, start, description);
+	}
+
+	/**
+	 * Returns the start time of the first occurrence.
+	 *
+	 * @return start time
+	 */
+	public TimeSimulator getFirstStart( ) {
+		return TimeSimulator.ofMinuteOfDay(first);
+	}
+
+	/**
+	 * Returns the minutes between the starts of two occurrences.
+	 *
+	 * @return interval in minutes
+	 */
+	public int getInterval( ) {
+		return interval;
+	}
+
+	/**
+	 * Returns the length of each occurrence.
+	 *
+	 * @return length in minutes
+	 */
+	public int getDuration( ) {
+		return duration;
+	}
+
+	/**
+	 * Returns the description of each occurrence.
+	 *
+	 * @return description
+	 */
+	public String getDescription( ) {
+		return description;
+	}
+
+	/**
+	 * Returns number of occurrences in a day.
+	 *
+	 * @return occurrence count
+	 */
+	public int getCount( ) {
+		return count;
+	}
+
+	/**
+	 * Returns the start minute of an occurrence.
+	 *
+	 * @param k occurrence number, from 0
+	 * @return start minute
+	 */
+	public int startMinute(int k) {
+		if (k < 0 || k >= count) {
+			throw new IndexOutOfBoundsException("Index " + k + " out of bounds!");
+		}
+		return first + k * interval;
+	}
+
+	/**
+	 * Returns the first occurrence starting at or after a minute.
+	 *
+	 * @param minute minute of the day
+	 * @return occurrence number, getCount() if there is none
+	 */
+	public int firstStartingAtOrAfter(int minute) {
+		if (minute <= first) {
+			return 0;
+		}
+		return (int) Math.min(count, ((long) minute - first + interval - 1) / interval);
+	}
+
+	/**
+	 * Returns the first occurrence ending after a minute, i.e. the first one that overlaps
+	 * anything starting at that minute.
+	 *
+	 * @param minute minute of the day
+	 * @return occurrence number, getCount() if there is none
+	 */
+	public int firstEndingAfter(int minute) {
+		return firstStartingAtOrAfter(minute - duration + 1);
+	}
+
+	/**
+	 * Returns an occurrence as a new read-only ScheduleItem without an id.
+	 *
+	 * @param k occurrence number, from 0
+	 * @return ScheduleItem
+	 */
+	public ScheduleItem occurrence(int k) {
+		int start = startMinute(k);
+		ScheduleItem item = new ScheduleItem(TimeSimulator.ofMinuteOfDay(start), TimeSimulator.ofMinuteOfDay(start + duration), description);
+		item.makeReadOnly();
+		return item;
+	}
+
+	/**
+	 * Sets the bits of every minute covered by an occurrence in an occupancy bitmap. Each minute
+	 * is visited at most once, even if occurrences overlap.
+	 *
+	 * @param words occupancy bitmap, one bit per minute
+	 */
+	public void markOccupied(long[] words) {
+		int marked = 0;
+		for (int k = 0; k < count; k++) {
+			int start = Math.max(first + k * interval, marked);
+			int end = first + k * interval + duration;
+			for (int m = start; m < end; m++) {
+				words[m >>> 6] |= 1L << m;
+			}
+			marked = Math.max(marked, end);
+		}
+	}
+
+	/**
+	 * Return a string representation of the rule.
+	 *
+	 * @return string representation of rule
+	 */
+	public String toString( ) {
+		return "every " + interval + " min " + getFirstStart() + "-" + TimeSimulator.ofMinuteOfDay(startMinute(count - 1)) + " (" + duration + " min)/" + description;
+	}
+
+}
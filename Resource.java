@@ -0,0 +1,63 @@
+/**
+ * This class represents a bookable resource, such as a room or a person, that ScheduleItems can
+ * be tagged with. Resources are equal if their names are equal.
+ */
+public final class Resource {
+
+	/**
+	 * Name of the resource.
+	 */
+	private final String name;
+
+	/**
+	 * Constructor with the name of the resource.
+	 *
+	 * @param name name, not empty
+	 */
+	public Resource(String name) {
+		if (name == null || name.isEmpty()) {
+			throw new IllegalArgumentException("Resource name cannot be empty!");
+		}
+		this.name = name;
+	}
+
+	/**
+	 * Returns the name of the resource.
+	 *
+	 * @return name
+	 */
+	public String getName( ) {
+		return name;
+	}
+
+	/**
+	 * Returns true if other is a Resource with the same name.
+	 *
+	 * @param other object to compare with
+	 * @return true if equal, otherwise false.
+	 */
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof Resource && name.equals(((Resource) other).name);
+	}
+
+	/**
+	 * Returns the hash code of the name.
+	 *
+	 * @return hash code
+	 */
+	@Override
+	public int hashCode( ) {
+		return name.hashCode();
+	}
+
+	/**
+	 * Return the name of the resource.
+	 *
+	 * @return name
+	 */
+	public String toString( ) {
+		return name;
+	}
+
+}
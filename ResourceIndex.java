@@ -0,0 +1,178 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class represents per-resource indexes over resource-tagged ScheduleItems. Every resource
+ * has its own ScheduleSorter, holding the ScheduleItems tagged with it in start order, and its
+ * own DayOccupancy. A common-availability query ORs the occupancy bitmaps of the requested
+ * resources word by word, 23 longs per resource, and scans the result once for free runs.
+ * ScheduleItems are matched on removal by id, and by identity if they have none.
+ */
+public class ResourceIndex {
+
+	/**
+	 * The indexes of one resource.
+	 */
+	private static final class Entry {
+
+		/**
+		 * ScheduleItems tagged with the resource, in start order.
+		 */
+		private final ScheduleSorter<ScheduleItem> items = new ScheduleSorter<>();
+
+		/**
+		 * Minutes occupied by those ScheduleItems.
+		 */
+		private final DayOccupancy occupancy = new DayOccupancy();
+	}
+
+	/**
+	 * Indexes by resource.
+	 */
+	private final Map<Resource, Entry> entries = new HashMap<>();
+
+	/**
+	 * Returns the resources that have at least one ScheduleItem.
+	 *
+	 * @return resources
+	 */
+	public Set<Resource> resources( ) {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * Adds a ScheduleItem to the index of each of its resources.
+	 *
+	 * @param item ScheduleItem to add
+	 */
+	public void add(ScheduleItem item) {
+		for (Resource resource : item.getResources()) {
+			Entry entry = entries.computeIfAbsent(resource, r -> new Entry());
+			entry.items.add(item);
+			entry.occupancy.add(item);
+		}
+	}
+
+	/**
+	 * Adds all given ScheduleItems, with one bulk load per resource.
+	 *
+	 * @param items ScheduleItems to add
+	 */
+	public void addAll(Collection<ScheduleItem> items) {
+		Map<Resource, List<ScheduleItem>> byResource = new HashMap<>();
+		for (ScheduleItem item : items) {
+			for (Resource resource : item.getResources()) {
+				byResource.computeIfAbsent(resource, r -> new ArrayList<>()).add(item);
+			}
+		}
+
+		for (Map.Entry<Resource, List<ScheduleItem>> batch : byResource.entrySet()) {
+			Entry entry = entries.computeIfAbsent(batch.getKey(), r -> new Entry());
+			entry.items.addAll(batch.getValue());
+			entry.occupancy.addAll(batch.getValue());
+		}
+	}
+
+	/**
+	 * Removes a ScheduleItem from the index of each of its resources. Must be called before the
+	 * times of the ScheduleItem change.
+	 *
+	 * @param item ScheduleItem to remove
+	 */
+	public void remove(ScheduleItem item) {
+		for (Resource resource : item.getResources()) {
+			Entry entry = entries.get(resource);
+			if (entry == null) {
+				continue;
+			}
+
+			int index = indexOf(entry.items, item);
+			if (index >= 0) {
+				entry.occupancy.remove(entry.items.delete(index));
+				if (entry.items.size() == 0) {
+					entries.remove(resource);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes every ScheduleItem.
+	 */
+	public void clear( ) {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the ScheduleItems tagged with a resource, in start order. The list is a view of an
+	 * O(1) snapshot, so it does not change afterwards.
+	 *
+	 * @param resource resource
+	 * @return ScheduleItems of the resource
+	 */
+	public List<ScheduleItem> items(Resource resource) {
+		Entry entry = entries.get(resource);
+		if (entry == null) {
+			return Collections.emptyList();
+		}
+
+		ScheduleSorter<ScheduleItem> items = entry.items.snapshot();
+		return new ScheduleRange(items, 0, items.size(), null, 0);
+	}
+
+	/**
+	 * Returns the minutes occupied for any of the given resources.
+	 *
+	 * @param resources resources
+	 * @return occupancy bitmap, one bit per minute
+	 */
+	public long[] occupiedWords(Collection<Resource> resources) {
+		long[] words = new long[DayOccupancy.WORDS];
+		for (Resource resource : resources) {
+			Entry entry = entries.get(resource);
+			if (entry != null) {
+				entry.occupancy.orInto(words);
+			}
+		}
+		return words;
+	}
+
+	/**
+	 * Returns every slot of at least duration minutes in which all given resources are free.
+	 *
+	 * @param resources resources that must all be free
+	 * @param duration minimum slot length in minutes
+	 * @return common free slots in order
+	 */
+	public List<ScheduleItem> findCommonFreeSlots(Collection<Resource> resources, int duration) {
+		if (resources == null) {
+			throw new IllegalArgumentException("Null Resource set!");
+		}
+		return DayOccupancy.findFreeSlots(occupiedWords(resources), duration);
+	}
+
+	/**
+	 * Private method that finds a ScheduleItem in a sorted index by binary search on its start
+	 * time, then by id or identity among the ScheduleItems with that start.
+	 *
+	 * @param items sorted index
+	 * @param item ScheduleItem to find
+	 * @return index, or -1 if it is not there
+	 */
+	private int indexOf(ScheduleSorter<ScheduleItem> items, ScheduleItem item) {
+		int start = item.getStartMinute();
+		for (int i = Scheduler.lowerBound(items, start); i < items.size() && items.get(i).getStartMinute() == start; i++) {
+			ScheduleItem candidate = items.get(i);
+			if (candidate == item || (item.getId() != 0 && candidate.getId() == item.getId())) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
@@ -0,0 +1,380 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * This is a representation of a multi-day calendar.
+ * Every date has its own ScheduleSorter partition, created the first time an event touches that
+ * date. An event that runs past midnight is split into one segment per date it covers, so a query
+ * over a span of dates only reads the partitions of those dates. Recurring events are kept as
+ * rules and only turned into CalendarEvents for the dates a query asks for.
+ */
+public class ScheduleCalendar{
+
+	/**
+	 * The part of a CalendarEvent that falls on one date.
+	 */
+	private static final class Segment implements Comparable<Segment>{
+
+		/**
+		 * Event this segment belongs to.
+		 */
+		private final CalendarEvent event;
+
+		/**
+		 * Start minute on this date.
+		 */
+		private final int start;
+
+		/**
+		 * True if the event starts on this date.
+		 */
+		private final boolean first;
+
+		/**
+		 * Constructor for a segment.
+		 * @param event event
+		 * @param start start minute on this date
+		 * @param first true if the event starts on this date
+		 */
+		private Segment(CalendarEvent event, int start, boolean first){
+			this.event = event;
+			this.start = start;
+			this.first = first;
+		}
+
+		/**
+		 * Orders segments by start minute.
+		 * @param other other segment
+		 * @return -1, 0 or 1 as this segment starts before, with or after other
+		 */
+		@Override
+		public int compareTo(Segment other){
+			return Integer.compare(this.start, other.start);
+		}
+	}
+
+	/**
+	 * A RecurrenceRule repeated on some days of the week within a span of dates.
+	 */
+	private static final class Recurrence{
+
+		/**
+		 * Occurrences within each matching date.
+		 */
+		private final RecurrenceRule rule;
+
+		/**
+		 * Days of the week the rule applies on.
+		 */
+		private final Set<DayOfWeek> days;
+
+		/**
+		 * First date, inclusive.
+		 */
+		private final LocalDate first;
+
+		/**
+		 * Last date, inclusive.
+		 */
+		private final LocalDate last;
+
+		/**
+		 * Constructor for a recurrence.
+		 * @param rule occurrences within each matching date
+		 * @param days days of the week the rule applies on
+		 * @param first first date
+		 * @param last last date
+		 */
+		private Recurrence(RecurrenceRule rule, Set<DayOfWeek> days, LocalDate first, LocalDate last){
+			this.rule = rule;
+			this.days = days;
+			this.first = first;
+			this.last = last;
+		}
+	}
+
+	/**
+	 * partitions by date.
+	 */
+	private final NavigableMap<LocalDate, ScheduleSorter<Segment>> days = new TreeMap<>();
+
+	/**
+	 * number of CalendarEvents.
+	 */
+	private int size;
+
+	/**
+	 * recurring events.
+	 */
+	private final List<Recurrence> recurrences = new ArrayList<>();
+
+	/**
+	 * Returns number of CalendarEvents.
+	 * @return number of CalendarEvents.
+	 */
+	public int size(){
+		return size;
+	}
+
+	/**
+	 * Returns number of dates that have a partition.
+	 * @return number of partitions.
+	 */
+	public int partitionCount(){
+		return days.size();
+	}
+
+	/**
+	 * Adds a new event to the calendar.
+	 * @param date start date
+	 * @param startTime start time
+	 * @param duration duration in minutes, may run past midnight
+	 * @param description description
+	 * @return the new CalendarEvent
+	 */
+	public CalendarEvent addEvent(LocalDate date, TimeSimulator startTime, int duration, String description){
+		CalendarEvent event = new CalendarEvent(date, startTime, duration, description);
+		addEvent(event);
+		return event;
+	}
+
+	/**
+	 * Adds a CalendarEvent to the calendar.
+	 * @param event new CalendarEvent
+	 */
+	public void addEvent(CalendarEvent event){
+		if(event==null){
+			throw new IllegalArgumentException("Null CalendarEvent object!");
+		}
+
+		LocalDate last = event.getLastDate();
+		int start = event.getStart().getMinuteOfDay();
+
+		for(LocalDate day = event.getDate(); !day.isAfter(last); day = day.plusDays(1)){
+			partition(day).add(new Segment(event, start, day.equals(event.getDate())));
+			start = 0;
+		}
+		size++;
+	}
+
+	/**
+	 * Removes a CalendarEvent from the calendar.
+	 * @param event CalendarEvent to remove
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean removeEvent(CalendarEvent event){
+		if(event==null){
+			return false;
+		}
+
+		LocalDate last = event.getLastDate();
+		int start = event.getStart().getMinuteOfDay();
+		boolean found = false;
+
+		for(LocalDate day = event.getDate(); !day.isAfter(last); day = day.plusDays(1)){
+			ScheduleSorter<Segment> partition = days.get(day);
+			int index = partition==null ? -1 : indexOf(partition, event, start);
+
+			if(index>=0){
+				partition.delete(index);
+				found = true;
+				if(partition.size()==0){
+					days.remove(day);
+				}
+			}
+			start = 0;
+		}
+
+		if(found){
+			size--;
+		}
+		return found;
+	}
+
+	/**
+	 * Adds a recurring event: the occurrences of rule on every date from first to last, both
+	 * inclusive, that falls on one of the given days of the week. Nothing is stored per date;
+	 * eventsBetween creates the CalendarEvents of the dates it is asked for. Recurring events are
+	 * not counted by size().
+	 * @param rule occurrences within each matching date
+	 * @param days days of the week, e.g. MONDAY to FRIDAY for every weekday
+	 * @param first first date
+	 * @param last last date
+	 */
+	public void addRule(RecurrenceRule rule, Set<DayOfWeek> days, LocalDate first, LocalDate last){
+		if(rule==null){
+			throw new IllegalArgumentException("Null RecurrenceRule object!");
+		}
+
+		if(days==null || days.isEmpty()){
+			throw new IllegalArgumentException("No days of the week given!");
+		}
+
+		if(first==null || last==null){
+			throw new IllegalArgumentException("Null Date object!");
+		}
+
+		recurrences.add(new Recurrence(rule, EnumSet.copyOf(days), first, last));
+	}
+
+	/**
+	 * Removes every recurring event added with the given rule.
+	 * @param rule rule to remove
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean removeRule(RecurrenceRule rule){
+		return recurrences.removeIf(recurrence -> recurrence.rule==rule);
+	}
+
+	/**
+	 * Returns the CalendarEvents that occupy the given date, including ones that started on an
+	 * earlier date, ordered by start.
+	 * @param date date
+	 * @return CalendarEvents on that date
+	 */
+	public List<CalendarEvent> eventsOn(LocalDate date){
+		return eventsBetween(date, date);
+	}
+
+	/**
+	 * Returns the CalendarEvents that occupy any date from first to last, both inclusive,
+	 * ordered by start. Each event is returned once.
+	 * @param first first date
+	 * @param last last date
+	 * @return CalendarEvents in the span
+	 */
+	public List<CalendarEvent> eventsBetween(LocalDate first, LocalDate last){
+		if(first==null || last==null){
+			throw new IllegalArgumentException("Null Date object!");
+		}
+
+		List<CalendarEvent> carried = new ArrayList<>();
+		List<CalendarEvent> started = new ArrayList<>();
+
+		if(last.isBefore(first)){
+			return started;
+		}
+
+		for(Map.Entry<LocalDate, ScheduleSorter<Segment>> entry : days.subMap(first, true, last, true).entrySet()){
+			ScheduleSorter<Segment> partition = entry.getValue();
+			boolean firstDay = entry.getKey().equals(first);
+
+			for(int i=0; i<partition.size(); i++){
+				Segment segment = partition.get(i);
+				if(segment.first){
+					started.add(segment.event);
+				}
+				else if(firstDay){
+					carried.add(segment.event);
+				}
+			}
+		}
+
+		if(expand(first, last, started)){
+			Collections.sort(started);
+		}
+
+		Collections.sort(carried);
+		carried.addAll(started);
+		return carried;
+	}
+
+	/**
+	 * Return the string representation of the calendar, one CalendarEvent per line.
+	 * @return string representation of calendar.
+	 */
+	public String toString(){
+		StringBuilder output = new StringBuilder();
+
+		for(Map.Entry<LocalDate, ScheduleSorter<Segment>> entry : days.entrySet()){
+			ScheduleSorter<Segment> partition = entry.getValue();
+			for(int i=0; i<partition.size(); i++){
+				if(partition.get(i).first){
+					output.append(partition.get(i).event).append('\n');
+				}
+			}
+		}
+		return output.toString().trim();
+	}
+
+	/**
+	 * Private helper that adds the recurring events on dates from first to last to out. Rule
+	 * occurrences end by 23:59, so none is carried over from an earlier date.
+	 * @param first first date
+	 * @param last last date
+	 * @param out result list
+	 * @return true if anything was added, otherwise false.
+	 */
+	private boolean expand(LocalDate first, LocalDate last, List<CalendarEvent> out){
+		boolean added = false;
+
+		for(Recurrence recurrence : recurrences){
+			LocalDate from = first.isAfter(recurrence.first) ? first : recurrence.first;
+			LocalDate to = last.isBefore(recurrence.last) ? last : recurrence.last;
+			RecurrenceRule rule = recurrence.rule;
+
+			for(LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)){
+				if(recurrence.days.contains(day.getDayOfWeek())){
+					for(int k=0; k<rule.getCount(); k++){
+						out.add(new CalendarEvent(day, TimeSimulator.ofMinuteOfDay(rule.startMinute(k)), rule.getDuration(), rule.getDescription()));
+						added = true;
+					}
+				}
+			}
+		}
+		return added;
+	}
+
+	/**
+	 * Private helper that returns the partition of a date, creating it if needed.
+	 * @param day date
+	 * @return partition
+	 */
+	private ScheduleSorter<Segment> partition(LocalDate day){
+		ScheduleSorter<Segment> partition = days.get(day);
+
+		if(partition==null){
+			partition = new ScheduleSorter<>();
+			days.put(day, partition);
+		}
+		return partition;
+	}
+
+	/**
+	 * Private helper that finds the segment of an event in a partition by binary search on its start minute.
+	 * @param partition partition
+	 * @param event event
+	 * @param start start minute of the segment
+	 * @return index of the segment, or -1 if it is not there
+	 */
+	private int indexOf(ScheduleSorter<Segment> partition, CalendarEvent event, int start){
+		int low = 0;
+		int high = partition.size();
+
+		while(low<high){
+			int mid = (low + high) >>> 1;
+			if(partition.get(mid).start < start){
+				low = mid + 1;
+			}
+			else{
+				high = mid;
+			}
+		}
+
+		for(int i=low; i<partition.size() && partition.get(i).start==start; i++){
+			if(partition.get(i).event==event){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+}
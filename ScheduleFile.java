@@ -0,0 +1,352 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * This class reads and writes the binary schedule file format.
+ * <pre>
+ * int    magic "TSSC"
+ * short  version
+ * long   journal position the file covers (version 2 and later)
+ * int    number of strings, then for each: int byte length, UTF-8 bytes
+ * int    number of items, then for each: short start minute, short end minute, int string index,
+ *        and (version 3 and later) short number of resources, int string index of each name
+ * </pre>
+ * Items are written in schedule order, so loading never has to sort them. The journal position
+ * tells recovery where to start replaying a MutationJournal; version 1 files count as position 0.
+ * Descriptions and resource names share the string table; files before version 3 have no
+ * resources.
+ */
+public class ScheduleFile {
+
+	/**
+	 * File magic, "TSSC".
+	 */
+	private static final int MAGIC = 0x54535343;
+
+	/**
+	 * Current format version.
+	 */
+	private static final short VERSION = 3;
+
+	/**
+	 * First format version that stores a journal position.
+	 */
+	private static final short JOURNAL_VERSION = 2;
+
+	/**
+	 * First format version that stores the resources of each item.
+	 */
+	private static final short RESOURCE_VERSION = 3;
+
+	/**
+	 * Largest number of resources an item may have in a file.
+	 */
+	private static final int MAX_RESOURCES = 0xFFFF;
+
+	/**
+	 * Bytes of a string record without its text: the int byte length.
+	 */
+	private static final int STRING_HEADER_BYTES = 4;
+
+	/**
+	 * Bytes of an item record without resources: two short minutes and an int string index.
+	 */
+	private static final int ITEM_BYTES = 8;
+
+	/**
+	 * Bytes of a resource reference: an int string index.
+	 */
+	private static final int RESOURCE_BYTES = 4;
+
+	/**
+	 * Utility class, no instances.
+	 */
+	private ScheduleFile( ) {
+	}
+
+	/**
+	 * Writes the given items, which must be in schedule order, to path.
+	 *
+	 * @param store items to write
+	 * @param path destination file, replaced if it exists
+	 * @throws IOException if writing fails
+	 */
+	public static void write(ScheduleStore<ScheduleItem> store, Path path) throws IOException {
+		write(store, 0, path);
+	}
+
+	/**
+	 * Writes the given items, which must be in schedule order, to path together with the journal
+	 * position they cover. The file is written to a uniquely named temporary file next to path,
+	 * forced to disk and then moved over path, so a crash never leaves a half-written snapshot behind.
+	 *
+	 * @param store items to write
+	 * @param journalPosition journal position after the last mutation contained in store
+	 * @param path destination file, replaced if it exists
+	 * @throws IOException if writing fails
+	 */
+	public static void write(ScheduleStore<ScheduleItem> store, long journalPosition, Path path) throws IOException {
+		if (store == null || path == null) {
+			throw new IllegalArgumentException("Null argument!");
+		}
+
+		int count = store.size();
+		int[] handles = new int[count];
+		List<byte[]> strings = new ArrayList<>();
+		Map<String, Integer> seen = new HashMap<>();
+
+		for (int i = 0; i < count; i++) {
+			ScheduleItem item = store.get(i);
+			handles[i] = intern(item.getDescription(), strings, seen);
+
+			if (item.getResources().size() > MAX_RESOURCES) {
+				throw new IllegalArgumentException("Too many resources on one item!");
+			}
+			for (Resource resource : item.getResources()) {
+				intern(resource.getName(), strings, seen);
+			}
+		}
+
+		Path temp = createTemp(path);
+
+		try {
+			writeTemp(store, journalPosition, strings, seen, handles, temp);
+			Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException | RuntimeException e) {
+			Files.deleteIfExists(temp);
+			throw e;
+		}
+	}
+
+	/**
+	 * Creates a uniquely named temporary file next to path, so writers that run at the same time
+	 * never share one.
+	 *
+	 * @param path file the temporary file will replace
+	 * @return new empty temporary file
+	 * @throws IOException if the file cannot be created
+	 */
+	static Path createTemp(Path path) throws IOException {
+		Path target = path.toAbsolutePath();
+		return Files.createTempFile(target.getParent(), target.getFileName() + ".", ".tmp");
+	}
+
+	/**
+	 * Private method that writes the encoded file to temp and forces it to disk.
+	 *
+	 * @param store ScheduleItems to write
+	 * @param journalPosition journal position the file covers
+	 * @param strings distinct strings in handle order
+	 * @param seen handle of each string
+	 * @param handles description handle of each item
+	 * @param temp temporary file to write
+	 * @throws IOException if writing fails
+	 */
+	private static void writeTemp(ScheduleStore<ScheduleItem> store, long journalPosition, List<byte[]> strings, Map<String, Integer> seen, int[] handles, Path temp) throws IOException {
+		int count = handles.length;
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+			out.writeInt(MAGIC);
+			out.writeShort(VERSION);
+			out.writeLong(journalPosition);
+
+			out.writeInt(strings.size());
+			for (byte[] bytes : strings) {
+				out.writeInt(bytes.length);
+				out.write(bytes);
+			}
+
+			out.writeInt(count);
+			for (int i = 0; i < count; i++) {
+				ScheduleItem item = store.get(i);
+				out.writeShort(item.getStartMinute());
+				out.writeShort(item.getEndMinute());
+				out.writeInt(handles[i]);
+				out.writeShort(item.getResources().size());
+				for (Resource resource : item.getResources()) {
+					out.writeInt(seen.get(resource.getName()));
+				}
+			}
+		}
+
+		try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+			channel.force(true);
+		}
+	}
+
+	/**
+	 * Reads the items of a schedule file through a memory mapping, in schedule order, together
+	 * with their resources.
+	 *
+	 * @param path file to read
+	 * @return items in schedule order
+	 * @throws IOException if reading fails or the file is not a valid schedule file
+	 */
+	public static List<ScheduleItem> read(Path path) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Null argument!");
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			short version = readVersion(buffer, path);
+			if (version >= JOURNAL_VERSION) {
+				buffer.getLong();
+			}
+			boolean withResources = version >= RESOURCE_VERSION;
+
+			String[] strings = new String[checkCount(buffer.getInt(), STRING_HEADER_BYTES, buffer, path)];
+			for (int i = 0; i < strings.length; i++) {
+				byte[] bytes = new byte[checkCount(buffer.getInt(), 1, buffer, path)];
+				buffer.get(bytes);
+				strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			}
+
+			int count = checkCount(buffer.getInt(), withResources ? ITEM_BYTES + 2 : ITEM_BYTES, buffer, path);
+			List<ScheduleItem> items = new ArrayList<>(count);
+			Resource[] resources = new Resource[strings.length];
+			for (int i = 0; i < count; i++) {
+				int start = buffer.getShort();
+				int end = buffer.getShort();
+				String description = strings[checkHandle(buffer.getInt(), strings.length, path)];
+				TimeSimulator startTime = TimeSimulator.ofMinuteOfDay(start);
+				TimeSimulator endTime = TimeSimulator.ofMinuteOfDay(end);
+
+				int tagged = withResources ? checkCount(buffer.getShort() & 0xFFFF, RESOURCE_BYTES, buffer, path) : 0;
+				if (tagged == 0) {
+					items.add(new ScheduleItem(startTime, endTime, description));
+					continue;
+				}
+
+				Set<Resource> booked = new HashSet<>();
+				for (int k = 0; k < tagged; k++) {
+					int handle = checkHandle(buffer.getInt(), strings.length, path);
+					if (resources[handle] == null) {
+						resources[handle] = new Resource(strings[handle]);
+					}
+					booked.add(resources[handle]);
+				}
+				items.add(new ScheduleItem(startTime, endTime, description, booked));
+			}
+			return items;
+		} catch (BufferUnderflowException | IllegalArgumentException ex) {
+			throw new IOException("Corrupt schedule file: " + path, ex);
+		}
+	}
+
+	/**
+	 * Reads the journal position a schedule file covers, without reading its items.
+	 *
+	 * @param path file to read
+	 * @return journal position, 0 for files written without one
+	 * @throws IOException if reading fails or the file is not a valid schedule file
+	 */
+	public static long readJournalPosition(Path path) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Null argument!");
+		}
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer buffer = ByteBuffer.allocate(14);
+			while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+				// keep reading until the header is complete or the file ends
+			}
+			buffer.flip();
+			return readVersion(buffer, path) >= JOURNAL_VERSION ? buffer.getLong() : 0;
+		} catch (BufferUnderflowException ex) {
+			throw new IOException("Corrupt schedule file: " + path, ex);
+		}
+	}
+
+	/**
+	 * Private method that returns the handle of a string in the string table, adding it if new.
+	 *
+	 * @param text string, null is written as empty
+	 * @param strings UTF-8 bytes of each string so far
+	 * @param seen handles by string
+	 * @return handle
+	 */
+	private static int intern(String text, List<byte[]> strings, Map<String, Integer> seen) {
+		String key = text == null ? "" : text;
+		Integer handle = seen.get(key);
+
+		if (handle == null) {
+			handle = strings.size();
+			strings.add(key.getBytes(StandardCharsets.UTF_8));
+			seen.put(key, handle);
+		}
+		return handle;
+	}
+
+	/**
+	 * Private method that checks magic and version and returns the version.
+	 *
+	 * @param buffer file contents, positioned at the start
+	 * @param path file being read
+	 * @return format version
+	 * @throws IOException if the file is not a supported schedule file
+	 */
+	private static short readVersion(ByteBuffer buffer, Path path) throws IOException {
+		if (buffer.getInt() != MAGIC) {
+			throw new IOException("Not a schedule file: " + path);
+		}
+
+		short version = buffer.getShort();
+		if (version < 1 || version > VERSION) {
+			throw new IOException("Unsupported schedule file version " + version + ": " + path);
+		}
+
+		return version;
+	}
+
+	/**
+	 * Private method that rejects string handles read from a file that are out of range.
+	 *
+	 * @param handle handle read from the file
+	 * @param strings number of strings in the table
+	 * @param path file being read
+	 * @return handle
+	 * @throws IOException if handle is out of range
+	 */
+	private static int checkHandle(int handle, int strings, Path path) throws IOException {
+		if (handle < 0 || handle >= strings) {
+			throw new IOException("Corrupt schedule file: " + path);
+		}
+		return handle;
+	}
+
+	/**
+	 * Private method that rejects counts read from a file that are negative or larger than the
+	 * rest of the file could hold, so a corrupt count fails before anything is allocated for it.
+	 *
+	 * @param count count read from the file
+	 * @param recordBytes smallest number of bytes each counted record takes
+	 * @param buffer file contents, positioned after the count
+	 * @param path file being read
+	 * @return count
+	 * @throws IOException if count is negative or too large
+	 */
+	private static int checkCount(int count, int recordBytes, ByteBuffer buffer, Path path) throws IOException {
+		if (count < 0 || count > buffer.remaining() / recordBytes) {
+			throw new IOException("Corrupt schedule file: " + path);
+		}
+		return count;
+	}
+
+}
@@ -1,3 +1,8 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * This class is a representation of ScheduleItem that implements the Comparable Interface.
 	* Ths class represents a single item/event in the daily schedule.
@@ -5,6 +10,11 @@
  */
 public class ScheduleItem implements Comparable<ScheduleItem> {
 
+	/**
+	 * Latest minute of the day a ScheduleItem may end at (23:59).
+	 */
+	private static final int MAX_MINUTE = 23*60 + 59;
+
 	/**
 	 * Start time.
 	 */
@@ -15,27 +25,54 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 	 */
 	private TimeSimulator endTime;
 
+	/**
+	 * Start time in minutes since 00:00, kept in step with startTime.
+	 */
+	private int startMinute;
+
+	/**
+	 * End time in minutes since 00:00, kept in step with endTime.
+	 */
+	private int endMinute;
+
 	/**
 	 * Description of the specific item/event in the schedule.
 	 */
 	private String description;
 
+	/**
+	 * True once the ScheduleItem is stored in a Scheduler; it can then no longer be changed.
+	 */
+	private boolean readOnly;
+
+	/**
+	 * Id given by the Scheduler that stores the ScheduleItem, 0 until then.
+	 */
+	private long id;
+
+	/**
+	 * Resources the ScheduleItem books, empty if none.
+	 */
+	private Set<Resource> resources = Collections.emptySet();
+
 	/**
 	 * Constructor with start and end times. Sets description to be empty string "".
 	 * @param startTime start time
 	 * @param endTime end time
 	 */
 	public ScheduleItem(TimeSimulator startTime, TimeSimulator endTime){
-		if(startTime.compareTo(endTime)>0)
-			throw new IllegalArgumentException("End Time cannot come before Start Time!");
-
 		if(endTime==null || startTime==null){
 			throw new IllegalArgumentException("Null Time object!");
 		}
 
+		if(startTime.compareTo(endTime)>0)
+			throw new IllegalArgumentException("End Time cannot come before Start Time!");
+
 		this.description = "";
 		this.startTime = startTime;
 		this.endTime = endTime;
+		this.startMinute = startTime.getMinuteOfDay();
+		this.endMinute = endTime.getMinuteOfDay();
 
 	}
 
@@ -46,13 +83,13 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 	 * @param description description
 	 */
 	public ScheduleItem(TimeSimulator startTime, TimeSimulator endTime, String description){
-		if(startTime.compareTo(endTime)>0)
-			throw new IllegalArgumentException("End Time cannot come before Start Time!");
-
 		if(endTime==null || startTime==null){
 			throw new IllegalArgumentException("Null Time object!");
 		}
 
+		if(startTime.compareTo(endTime)>0)
+			throw new IllegalArgumentException("End Time cannot come before Start Time!");
+
 		if(description==null){
 			this.description = "";
 		}
@@ -62,6 +99,84 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 
 		this.startTime = startTime;
 		this.endTime = endTime;
+		this.startMinute = startTime.getMinuteOfDay();
+		this.endMinute = endTime.getMinuteOfDay();
+	}
+
+	/**
+	 * Constructor with start time, end time, description and the resources it books.
+	 * @param startTime start time
+	 * @param endTime end time
+	 * @param description description
+	 * @param resources resources, such as rooms and people
+	 */
+	public ScheduleItem(TimeSimulator startTime, TimeSimulator endTime, String description, Set<Resource> resources){
+		this(startTime, endTime, description);
+
+		if(resources==null){
+			throw new IllegalArgumentException("Null Resource set!");
+		}
+
+		for(Resource resource : resources){
+			if(resource==null){
+				throw new IllegalArgumentException("Null Resource object!");
+			}
+		}
+
+		this.resources = resources.isEmpty() ? Collections.emptySet() : Set.copyOf(resources);
+	}
+
+	/**
+	 * Copy constructor. The copy has the same times, description, resources and id, and is not
+	 * read-only.
+	 * @param other ScheduleItem to copy
+	 */
+	public ScheduleItem(ScheduleItem other){
+		if(other==null){
+			throw new IllegalArgumentException("Null ScheduleItem object!");
+		}
+
+		this.startTime = other.startTime;
+		this.endTime = other.endTime;
+		this.startMinute = other.startMinute;
+		this.endMinute = other.endMinute;
+		this.description = other.description;
+		this.resources = other.resources;
+		this.id = other.id;
+	}
+
+	/**
+	 * Make this ScheduleItem read-only. Scheduler calls this when it stores the ScheduleItem, so
+	 * the stored value can be shared with snapshots and other threads.
+	 */
+	public void makeReadOnly(){
+		this.readOnly = true;
+	}
+
+	/**
+	 * return whether this ScheduleItem is read-only.
+	 * @return true if read-only, otherwise false.
+	 */
+	public boolean isReadOnly(){
+		return this.readOnly;
+	}
+
+	/**
+	 * return the id of the ScheduleItem. It stays the same while the ScheduleItem is moved or
+	 * changed inside its Scheduler, even though its index changes.
+	 * @return id, or 0 if the ScheduleItem was never stored in a Scheduler
+	 */
+	public long getId(){
+		return this.id;
+	}
+
+	/**
+	 * Set the id of the ScheduleItem. Used by Scheduler and stores when they store a ScheduleItem.
+	 * @param id new id
+	 */
+	void assignId(long id){
+		checkWritable();
+		this.id = id;
 	}
 
 	/**
@@ -80,6 +195,30 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 		return this.endTime;
 	}
 
+	/**
+	 * return start time of ScheduleItem in minutes since 00:00.
+	 * @return start minute
+	 */
+	public int getStartMinute(){
+		return this.startMinute;
+	}
+
+	/**
+	 * return end time of ScheduleItem in minutes since 00:00.
+	 * @return end minute
+	 */
+	public int getEndMinute(){
+		return this.endMinute;
+	}
+
+	/**
+	 * return the resources the ScheduleItem books.
+	 * @return unmodifiable set of resources, empty if none
+	 */
+	public Set<Resource> getResources(){
+		return this.resources;
+	}
+
 	/**
 	 * return description of ScheduleItem.
 	 * @return description
@@ -98,9 +237,9 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 		if(otherScheduleItem==null)
 			throw new IllegalArgumentException("Null ScheduleItem object!");
 
-		if(this.startTime.compareTo(otherScheduleItem.startTime)<0)
+		if(this.startMinute < otherScheduleItem.startMinute)
 			return -1;
-		else if(this.startTime.compareTo(otherScheduleItem.startTime)>0)
+		else if(this.startMinute > otherScheduleItem.startMinute)
 			return 1;
 		else
 			return 0;
@@ -112,45 +251,21 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 	 * @return true if successful, otherwise false.
 	 */
 	public boolean moveStart(TimeSimulator newStart){
+		checkWritable();
 
 		if(newStart==null)
 			return false;
 
-		TimeSimulator temp = this.startTime;
-
-		int initialStart = this.startTime.getHour()*60 + this.startTime.getMin();
-		int initialEnd = this.endTime.getHour()*60 + this.endTime.getMin();
-		int diff = initialEnd - initialStart;
-
-		this.startTime = newStart;
-
-		int finalStart = getStart().getHour()*60 + getStart().getMin();
-		int finalEnd = finalStart + diff;
-
-		int newEndTimeHr = 0;
-		int newEndTimeMin = 0;
-
-		while(finalEnd>59){
-			finalEnd-=60;
-			newEndTimeHr++;
-		}
-
-		newEndTimeMin = finalEnd;
-
-		int maxTime = 23*60 + 59;
+		int newStartMinute = newStart.getMinuteOfDay();
+		int newEndMinute = newStartMinute + (this.endMinute - this.startMinute);
 
-
-		if(finalStart > maxTime || finalEnd > maxTime || newEndTimeHr<0 || newEndTimeHr>23 || newEndTimeMin<0 || newEndTimeMin>59 ){
-			this.startTime = temp; //restore original startTime
+		if(newEndMinute > MAX_MINUTE)
 			return false;
-		}
 
-		TimeSimulator newEnd = new TimeSimulator(newEndTimeHr, newEndTimeMin);
-
-		if((newEnd.getHour()*60 + newEnd.getMin()) > maxTime){
-			return false;
-		}
-		this.endTime = newEnd;
+		this.startTime = newStart;
+		this.endTime = TimeSimulator.ofMinuteOfDay(newEndMinute);
+		this.startMinute = newStartMinute;
+		this.endMinute = newEndMinute;
 
 		return true;
 	}
@@ -161,34 +276,17 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 	 * @return true if successful, otherwise false.
 	 */
 	public boolean changeDuration(int minute){
+		checkWritable();
 
 		if(minute<0)
 			return false;
 
-		int maxTime = 23*60 + 59;
-
-		int initialStart = this.startTime.getHour()*60 + this.startTime.getMin();
-		int initialEnd = this.endTime.getHour()*60 + this.endTime.getMin();
-		int origDuration = initialEnd - initialStart;
-
-		if((initialStart + minute) > maxTime){
+		if(minute > MAX_MINUTE - this.startMinute){
 			return false;
 		}
 
-		int newEndTime = initialStart + minute;
-
-		int newEndTimeHr = 0;
-		int newEndTimeMin = 0;
-
-		while(newEndTime>59){
-			newEndTime-=60;
-			newEndTimeHr++;
-		}
-		newEndTimeMin = newEndTime;
-
-		TimeSimulator newEnd = new TimeSimulator(newEndTimeHr,newEndTimeMin);
-
-		this.endTime = newEnd;
+		this.endMinute = this.startMinute + minute;
+		this.endTime = TimeSimulator.ofMinuteOfDay(this.endMinute);
 
 		return true;
 
@@ -199,6 +297,7 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 	 * @param newDescription new description
 	 */
 	public void setDescription(String newDescription){
+		checkWritable();
 
 		if(newDescription==null)
 			this.description="";
@@ -206,15 +305,60 @@ public class ScheduleItem implements Comparable<ScheduleItem> {
 		this.description = newDescription;
 	}
 
+	/**
+	 * Private helper that rejects changes to a read-only ScheduleItem.
+	 */
+	private void checkWritable(){
+		if(this.readOnly)
+			throw new UnsupportedOperationException("Cannot modify: read-only ScheduleItem!");
+	}
+
 	/**
 	 * Return a string representation of the ScheduleItem in the form of
 	 * startTime-endTime/description.
 	 * @return string representation of ScheduleItem
 	 */
 	public String toString(){
-		String outp = "";
-		outp = String.format("%02d:%02d-%02d:%02d/%s",this.startTime.getHour(), this.startTime.getMin(),this.endTime.getHour(), this.endTime.getMin(),getDescription());
-		return outp;
+		StringBuilder outp = new StringBuilder(32);
+		try{
+			appendTo(outp);
+		}catch(IOException ex){
+			//StringBuilder never throws
+			throw new UncheckedIOException(ex);
+		}
+		return outp.toString();
+	}
+
+	/**
+	 * Writes the ScheduleItem to out in the form of startTime-endTime/description, the same as
+	 * toString, without building a String first.
+	 * @param out destination
+	 * @return out
+	 * @throws IOException if out fails
+	 */
+	public Appendable appendTo(Appendable out) throws IOException{
+		appendTime(out, this.startMinute);
+		out.append('-');
+		appendTime(out, this.endMinute);
+		out.append('/');
+		out.append(getDescription());
+		return out;
+	}
+
+	/**
+	 * Private helper that writes a minute of the day as zero-padded hh:mm.
+	 * @param out destination
+	 * @param minuteOfDay minutes since 00:00
+	 * @throws IOException if out fails
+	 */
+	private static void appendTime(Appendable out, int minuteOfDay) throws IOException{
+		int hour = minuteOfDay / 60;
+		int min = minuteOfDay % 60;
+		out.append((char)('0' + hour / 10));
+		out.append((char)('0' + hour % 10));
+		out.append(':');
+		out.append((char)('0' + min / 10));
+		out.append((char)('0' + min % 10));
 	}
 
 
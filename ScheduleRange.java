@@ -0,0 +1,89 @@
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.RandomAccess;
+
+/**
+ * This class represents a read-only view of an index window of a sorted store, as returned by
+ * Scheduler.range and SchedulerSnapshot.range. It holds only the bounds; every read goes to the
+ * store. A view of a Scheduler is invalidated by the next edit of that Scheduler.
+ */
+class ScheduleRange extends AbstractList<ScheduleItem> implements RandomAccess {
+
+	/**
+	 * Store the window is taken from.
+	 */
+	private final ScheduleStore<ScheduleItem> store;
+
+	/**
+	 * First index of the window, inclusive.
+	 */
+	private final int from;
+
+	/**
+	 * Last index of the window, exclusive.
+	 */
+	private final int to;
+
+	/**
+	 * Scheduler whose edits invalidate the view, or null for a view of a snapshot.
+	 */
+	private final Scheduler owner;
+
+	/**
+	 * Edit count of owner when the view was made.
+	 */
+	private final int expectedModCount;
+
+	/**
+	 * Constructor for a view of store[from, to).
+	 *
+	 * @param store store the window is taken from
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @param owner Scheduler whose edits invalidate the view, or null if the store never changes
+	 * @param expectedModCount edit count of owner now
+	 */
+	ScheduleRange(ScheduleStore<ScheduleItem> store, int from, int to, Scheduler owner, int expectedModCount) {
+		this.store = store;
+		this.from = from;
+		this.to = to;
+		this.owner = owner;
+		this.expectedModCount = expectedModCount;
+	}
+
+	/**
+	 * Return the ScheduleItem at the given index of the view.
+	 *
+	 * @param index index within the view
+	 * @return ScheduleItem
+	 */
+	@Override
+	public ScheduleItem get(int index) {
+		checkForComodification();
+		if (index < 0 || index >= to - from) {
+			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
+		}
+		return store.get(from + index);
+	}
+
+	/**
+	 * Returns number of ScheduleItems in the view.
+	 *
+	 * @return size of view
+	 */
+	@Override
+	public int size( ) {
+		checkForComodification();
+		return to - from;
+	}
+
+	/**
+	 * Private method that rejects reads after the owner was edited.
+	 */
+	private void checkForComodification( ) {
+		if (owner != null && owner.modCount() != expectedModCount) {
+			throw new ConcurrentModificationException("Scheduler was edited after range() was called!");
+		}
+	}
+
+}
@@ -1,14 +1,35 @@
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
 /**
  * This class represents the ScheduleSorter class.
+ * The backing array grows and shrinks according to a CapacityPolicy; see ensureCapacity and
+ * trimToSize for taking control of it explicitly.
  * @param <T> parameter type
  */
-public class ScheduleSorter<T extends Comparable<T>> {
+public class ScheduleSorter<T extends Comparable<T>> implements ScheduleStore<T> {
 
 	/**
 	 * Default initial capacity.
 	 */
 	private static final int DEFAULT_CAPACITY = 2;
 
+	/**
+	 * Batch size from which addAll sorts the incoming values in parallel.
+	 */
+	private static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+	/**
+	 * Largest capacity the array is allowed to grow to.
+	 */
+	private static final int MAX_CAPACITY = CapacityPolicy.MAX_CAPACITY;
+
 	/**
 	 * The array to be used.
 	 */
@@ -24,13 +45,41 @@ public class ScheduleSorter<T extends Comparable<T>> {
 	 */
 	private int capacity = DEFAULT_CAPACITY;
 
+	/**
+	 * When to grow and shrink the array.
+	 */
+	private final CapacityPolicy policy;
+
+	/**
+	 * Capacity reserved with ensureCapacity, which deletes do not shrink below.
+	 */
+	private int reserved;
+
+	/**
+	 * Number of times the array was reallocated with a new capacity.
+	 */
+	private long resizes;
+
+	/**
+	 * Number of adds and deletes so far, checked by iterators and spliterators.
+	 */
+	private int modCount;
+
+	/**
+	 * True if data is shared with a snapshot and must be copied before the next change.
+	 */
+	private boolean shared;
+
+	/**
+	 * True if this is a read-only snapshot.
+	 */
+	private final boolean readOnly;
+
 	/**
 	 * Constructor for this class. Sets capacity to default, which is 2.
 	 */
-	@SuppressWarnings("unchecked")
 	public ScheduleSorter( ) {
-		data = (T[]) new Comparable[DEFAULT_CAPACITY];
-		capacity = DEFAULT_CAPACITY;
+		this(DEFAULT_CAPACITY, CapacityPolicy.DEFAULT);
 	}
 
 	/**
@@ -38,16 +87,46 @@ public class ScheduleSorter<T extends Comparable<T>> {
 	 *
 	 * @param initialCapacity capacity
 	 */
-	@SuppressWarnings("unchecked")
 	public ScheduleSorter(int initialCapacity) {
-		data = (T[]) new Comparable[initialCapacity];
-		capacity = initialCapacity;
+		this(initialCapacity, CapacityPolicy.DEFAULT);
+	}
 
+	/**
+	 * Constructor for this class. Sets capacity to provided capacity and resizes according to the
+	 * given policy.
+	 *
+	 * @param initialCapacity capacity
+	 * @param policy when to grow and shrink the array
+	 */
+	@SuppressWarnings("unchecked")
+	public ScheduleSorter(int initialCapacity, CapacityPolicy policy) {
 		if (initialCapacity < DEFAULT_CAPACITY)
 			throw new IllegalArgumentException("Capacity must be at least 2!");
+
+		if (policy == null)
+			throw new IllegalArgumentException("Null CapacityPolicy object!");
+
+		readOnly = false;
+		this.policy = policy;
+		data = (T[]) new Comparable[initialCapacity];
+		capacity = initialCapacity;
 	}
 
 
+	/**
+	 * Constructor for a read-only snapshot sharing the given array.
+	 *
+	 * @param data shared array
+	 * @param size number of items in use
+	 */
+	private ScheduleSorter(T[] data, int size) {
+		this.readOnly = true;
+		this.policy = CapacityPolicy.DEFAULT;
+		this.data = data;
+		this.size = size;
+		this.capacity = data.length;
+	}
+
 	/**
 	 * Returns size of the array.
 	 *
@@ -67,17 +146,96 @@ public class ScheduleSorter<T extends Comparable<T>> {
 	}
 
 	/**
-	 * Private method that sorts the array at O(1) time complexity.
+	 * Returns number of times the array was reallocated with a new capacity, by growing,
+	 * shrinking, ensureCapacity or trimToSize.
+	 *
+	 * @return resize count
+	 */
+	public long resizeCount( ) {
+		return resizes;
+	}
+
+	/**
+	 * Makes sure the array can hold minCapacity items without growing, and keeps deletes from
+	 * shrinking it below that until trimToSize is called.
+	 *
+	 * @param minCapacity number of items to reserve room for
+	 */
+	public void ensureCapacity(int minCapacity) {
+		beforeWrite();
+
+		if (minCapacity > MAX_CAPACITY)
+			throw new IllegalArgumentException("Capacity must be at most " + MAX_CAPACITY + "!");
+
+		reserved = Math.max(minCapacity, DEFAULT_CAPACITY);
+		if (reserved > capacity) {
+			resize(reserved);
+		}
+	}
+
+	/**
+	 * Shrinks the array to the number of items in use and drops any capacity reserved with
+	 * ensureCapacity.
+	 */
+	public void trimToSize( ) {
+		beforeWrite();
+		reserved = 0;
+
+		int newCap = Math.max(size, DEFAULT_CAPACITY);
+		if (newCap < capacity) {
+			resize(newCap);
+		}
+	}
+
+	/**
+	 * Returns a read-only, point-in-time view of this array in O(1). The view shares the backing
+	 * array; the next change to this array copies it first, so the view never changes.
+	 *
+	 * @return read-only snapshot
+	 */
+	public ScheduleSorter<T> snapshot( ) {
+		if (!readOnly) {
+			shared = true;
+		}
+		return new ScheduleSorter<>(data, size);
+	}
+
+	/**
+	 * Private method called before every change. Rejects changes to a snapshot and gives this
+	 * array its own copy of data if a snapshot still shares it.
+	 */
+	private void beforeWrite( ) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Cannot modify: read-only snapshot!");
+		}
+
+		if (shared) {
+			data = Arrays.copyOf(data, data.length);
+			shared = false;
+		}
+	}
+
+	/**
+	 * Private method that finds the slot for value by binary search. Returns the index just past
+	 * the last element that is less than or equal to value, so equal elements keep insertion order.
+	 *
+	 * @param value value to be placed
+	 * @return insertion index
 	 */
-	private void sort_dynamic_array( ) {
-		for (int i = 0; i < size - 1; i++) {
-			if (data[i].compareTo(data[i + 1]) > 0) {
-				T temp = data[i];
-				data[i] = data[i + 1];
-				data[i + 1] = temp;
-				i = -1;
+	private int upperBound(T value) {
+		int low = 0;
+		int high = size;
+
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (data[mid].compareTo(value) <= 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
 			}
 		}
+
+		return low;
 	}
 
 	/**
@@ -86,21 +244,119 @@ public class ScheduleSorter<T extends Comparable<T>> {
 	 * @param value value to be added into array
 	 */
 	public void add(T value) {
+		beforeWrite();
 
 		if (value == null) {
 			throw new IllegalArgumentException("Cannot add: null value!");
 		}
 
-		if (capacity == Integer.MAX_VALUE - 50)
+		if (size == MAX_CAPACITY)
 			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
 
-		if (size == capacity) {
-			doubleCapacity();
-		}
+		growTo(size + 1);
 
-		data[size] = value;
+		int slot = upperBound(value);
+		System.arraycopy(data, slot, data, slot + 1, size - slot);
+		data[slot] = value;
 		size++;
-		sort_dynamic_array();
+		modCount++;
+	}
+
+	/**
+	 * Insert all given values into the array and keep the array sorted in ascending order.
+	 * The backing array is resized at most once, the batch is sorted on its own (in parallel
+	 * for large batches) and then merged with the existing data in a single pass. Values equal
+	 * to existing ones are placed after them.
+	 *
+	 * @param values values to be added into array
+	 */
+	@SuppressWarnings("unchecked")
+	public void addAll(Collection<? extends T> values) {
+		beforeWrite();
+
+		if (values == null) {
+			throw new IllegalArgumentException("Cannot add: null collection!");
+		}
+
+		T[] batch = (T[]) values.toArray(new Comparable[values.size()]);
+
+		if (batch.length == 0) {
+			return;
+		}
+
+		for (T value : batch) {
+			if (value == null) {
+				throw new IllegalArgumentException("Cannot add: null value!");
+			}
+		}
+
+		if ((long) size + batch.length > MAX_CAPACITY)
+			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
+
+		if (!isSorted(batch)) {
+			if (batch.length >= PARALLEL_SORT_THRESHOLD) {
+				Arrays.parallelSort(batch);
+			} else {
+				Arrays.sort(batch);
+			}
+		}
+
+		int newSize = size + batch.length;
+		growTo(newSize);
+
+		int i = size - 1;
+		int j = batch.length - 1;
+		int k = newSize - 1;
+
+		while (j >= 0) {
+			if (i >= 0 && data[i].compareTo(batch[j]) > 0) {
+				data[k--] = data[i--];
+			} else {
+				data[k--] = batch[j--];
+			}
+		}
+
+		size = newSize;
+		modCount++;
+	}
+
+	/**
+	 * Private method that checks whether the given values are already in ascending order.
+	 *
+	 * @param values values to check
+	 * @return true if sorted, otherwise false.
+	 */
+	private boolean isSorted(T[] values) {
+		for (int i = 1; i < values.length; i++) {
+			if (values[i - 1].compareTo(values[i]) > 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Private method that grows the array, as the policy says, until it can hold minCapacity items.
+	 *
+	 * @param minCapacity number of items the array must be able to hold
+	 */
+	private void growTo(int minCapacity) {
+		if (minCapacity <= capacity) {
+			return;
+		}
+
+		resize(policy.grownCapacity(capacity, minCapacity));
+	}
+
+	/**
+	 * Private method that reallocates the array with the given capacity, which must hold size items.
+	 *
+	 * @param newCap new capacity
+	 */
+	private void resize(int newCap) {
+		data = Arrays.copyOf(data, newCap);
+		capacity = newCap;
+		resizes++;
 	}
 
 	/**
@@ -126,7 +382,8 @@ public class ScheduleSorter<T extends Comparable<T>> {
 	 * @return true if successful, otherwise false.
 	 */
 	public boolean replace(int index, T value) {
-		if (index < 0 || index > size) {
+		beforeWrite();
+		if (index < 0 || index >= size) {
 			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
 		}
 
@@ -134,12 +391,12 @@ public class ScheduleSorter<T extends Comparable<T>> {
 			throw new IllegalArgumentException("Cannot add: null value!");
 		}
 
-		if ((value.compareTo(data[index - 1]) > 0 || value.compareTo(data[index - 1]) == 0) && (value.compareTo(data[index + 1]) < 0 || value.compareTo(data[index + 1]) == 0)) {
-			data[index] = value;
-			return true;
+		if ((index > 0 && value.compareTo(data[index - 1]) < 0) || (index < size - 1 && value.compareTo(data[index + 1]) > 0)) {
+			return false;
 		}
 
-		return false;
+		data[index] = value;
+		return true;
 	}
 
 	/**
@@ -150,6 +407,7 @@ public class ScheduleSorter<T extends Comparable<T>> {
 	 * @return true if successful, otherwise false.
 	 */
 	public boolean add(int index, T value) {
+		beforeWrite();
 
 		if (index > capacity() && index < 0) {
 			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
@@ -157,12 +415,11 @@ public class ScheduleSorter<T extends Comparable<T>> {
 			throw new IllegalArgumentException("Cannot add: null value!");
 		}
 
-		if (capacity == Integer.MAX_VALUE - 50)
+		if (size == MAX_CAPACITY)
 			throw new IllegalStateException("Cannot add: capacity upper-bound reached!");
 
-		if (size == capacity) {
-			doubleCapacity();
-		}
+		growTo(size + 1);
+		modCount++;
 
 		if (size == 0) {
 			data[0] = value;
@@ -182,9 +439,7 @@ public class ScheduleSorter<T extends Comparable<T>> {
 		}
 
 		if ((data[index - 1].compareTo(value) < 0 || data[index - 1].compareTo(value) == 0) && (data[index].compareTo(value) > 0 || data[index].compareTo(value) == 0)) {
-			for (int i = size; i > index; i--) {
-				data[i] = data[i - 1];
-			}
+			System.arraycopy(data, index, data, index + 1, size - index);
 			data[index] = value;
 			size++;
 			return true;
@@ -195,99 +450,227 @@ public class ScheduleSorter<T extends Comparable<T>> {
 
 
 	/**
-	 * Remove and return the element at the given index.
+	 * Remove and return the element at the given index. Shrinks the array if the policy says so.
 	 *
 	 * @param index index
 	 * @return element at given index.
 	 */
 	public T delete(int index) {
-		if (index >= size() && index < 0) {
+		beforeWrite();
+		if (index >= size || index < 0) {
 			throw new IndexOutOfBoundsException("Index " + index + " out of bounds!");
 		}
 		T temp = data[index];
 
-		for (int i = index; i < size() - 1; i++) {
-			data[i] = data[i + 1];
-		}
-
-		data[size() - 1] = null;
+		System.arraycopy(data, index + 1, data, index, size - index - 1);
+		data[size - 1] = null;
 		size--;
+		modCount++;
 
-		if (size * 3 < capacity) {
-			halveCapacity();
+		int newCap = policy.shrunkCapacity(size, capacity, reserved);
+		if (newCap < capacity) {
+			resize(newCap);
 		}
 
 		return temp;
 	}
 
 	/**
-	 * Double the max number of items allowed in data storage.
+	 * Returns an iterator over the items in order. It fails fast with
+	 * ConcurrentModificationException if items are added or deleted other than through it.
 	 *
-	 * @return true if successful, otherwise false.
+	 * @return iterator
 	 */
-	@SuppressWarnings("unchecked")
-	public boolean doubleCapacity( ) {
-		int upperBound = Integer.MAX_VALUE - 50;
-		int newCap = data.length + data.length;
+	@Override
+	public Iterator<T> iterator( ) {
+		return new Iterator<T>() {
+
+			/**
+			 * Next index to visit.
+			 */
+			private int next;
+
+			/**
+			 * modCount when the iterator was made.
+			 */
+			private final int expectedModCount = modCount;
+
+			@Override
+			public boolean hasNext( ) {
+				return next < size;
+			}
+
+			@Override
+			public T next( ) {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				if (next >= size) {
+					throw new NoSuchElementException();
+				}
+				return data[next++];
+			}
+		};
+	}
 
-		if (newCap > upperBound) {
-			newCap = upperBound;
+	/**
+	 * Returns a SIZED, SUBSIZED, ORDERED and SORTED Spliterator that splits the backing array in
+	 * half, so parallel streams divide the work evenly without copying. It binds to the items on
+	 * first use and fails fast with ConcurrentModificationException if items are added or deleted
+	 * during traversal.
+	 *
+	 * @return spliterator
+	 */
+	@Override
+	public Spliterator<T> spliterator( ) {
+		return new ArraySpliterator(0, -1, 0);
+	}
+
+	/**
+	 * This class represents a Spliterator over an index range of the backing array.
+	 */
+	private final class ArraySpliterator implements Spliterator<T> {
+
+		/**
+		 * Next index to visit.
+		 */
+		private int index;
+
+		/**
+		 * Index past the last one to visit, -1 until first use.
+		 */
+		private int fence;
+
+		/**
+		 * modCount at first use.
+		 */
+		private int expectedModCount;
+
+		/**
+		 * Constructor for a Spliterator over data[origin, fence).
+		 *
+		 * @param origin first index
+		 * @param fence index past the last one, -1 to bind to size on first use
+		 * @param expectedModCount modCount of the parent, if already bound
+		 */
+		ArraySpliterator(int origin, int fence, int expectedModCount) {
+			this.index = origin;
+			this.fence = fence;
+			this.expectedModCount = expectedModCount;
 		}
 
-		if (capacity == upperBound) {
-			return false;
+		/**
+		 * Private method that binds the range to the current size on first use.
+		 *
+		 * @return fence
+		 */
+		private int getFence( ) {
+			if (fence < 0) {
+				expectedModCount = modCount;
+				fence = size;
+			}
+			return fence;
 		}
 
-		if (newCap < DEFAULT_CAPACITY) {
-			newCap = DEFAULT_CAPACITY;
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
+
+			if (index >= getFence()) {
+				return false;
+			}
+
+			T value = data[index++];
+			action.accept(value);
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
+			return true;
 		}
 
-		T[] newData = (T[]) new Comparable[newCap];
+		@Override
+		public void forEachRemaining(Consumer<? super T> action) {
+			if (action == null) {
+				throw new NullPointerException();
+			}
 
-		for (int i = 0; i < size; i++) {
-			newData[i] = data[i];
+			int hi = getFence();
+			T[] values = data;
+			for (int i = index; i < hi; i++) {
+				if (modCount != expectedModCount) {
+					throw new ConcurrentModificationException();
+				}
+				action.accept(values[i]);
+			}
+			index = hi;
+			if (modCount != expectedModCount) {
+				throw new ConcurrentModificationException();
+			}
 		}
 
-		capacity = newCap;
-		data = newData;
+		@Override
+		public Spliterator<T> trySplit( ) {
+			int hi = getFence();
+			int mid = (index + hi) >>> 1;
+			if (mid <= index) {
+				return null;
+			}
+
+			Spliterator<T> prefix = new ArraySpliterator(index, mid, expectedModCount);
+			index = mid;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize( ) {
+			return getFence() - index;
+		}
+
+		@Override
+		public int characteristics( ) {
+			return SIZED | SUBSIZED | ORDERED | SORTED | NONNULL;
+		}
+
+		@Override
+		public Comparator<? super T> getComparator( ) {
+			return null;
+		}
 
-		return true;
 	}
 
 	/**
-	 * Reduce the max number of items allowed in data storage by half.
+	 * Double the max number of items allowed in data storage.
 	 *
 	 * @return true if successful, otherwise false.
 	 */
-	@SuppressWarnings("unchecked")
-	public boolean halveCapacity( ) {
-		T bufferArray[] = null;
-
-		if (capacity % 2 != 0 && capacity < size) {
-			Math.floor(capacity);
-		}
+	public boolean doubleCapacity( ) {
+		beforeWrite();
 
-		if (capacity == size) {
+		if (capacity == MAX_CAPACITY) {
 			return false;
 		}
 
-		if ((capacity / 2) < 2) {
-			if (size > DEFAULT_CAPACITY)
-				return false;
-
-			bufferArray = (T[]) new Comparable[DEFAULT_CAPACITY];
-			return true;
-		}
+		resize((int) Math.min(Math.max((long) capacity * 2, DEFAULT_CAPACITY), MAX_CAPACITY));
+		return true;
+	}
 
-		bufferArray = (T[]) new Comparable[capacity / 2];
+	/**
+	 * Reduce the max number of items allowed in data storage by half, if the items still fit.
+	 *
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean halveCapacity( ) {
+		beforeWrite();
+		int newCap = capacity / 2;
 
-		for (int i = 0; i < size; i++) {
-			bufferArray[i] = data[i];
+		if (newCap < DEFAULT_CAPACITY || newCap < size) {
+			return false;
 		}
-		capacity = capacity / 2;
-		data = bufferArray;
 
+		resize(newCap);
 		return true;
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,142 @@
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * This interface represents a sorted store of schedule values, as used by Scheduler.
+ * Values are kept in ascending order and values that compare equal keep their insertion order.
+ * @param <T> parameter type
+ */
+public interface ScheduleStore<T extends Comparable<T>> extends Iterable<T> {
+
+	/**
+	 * Returns number of stored values.
+	 *
+	 * @return size of store
+	 */
+	int size( );
+
+	/**
+	 * Returns number of values the store can hold before it has to grow.
+	 *
+	 * @return capacity
+	 */
+	int capacity( );
+
+	/**
+	 * Insert the given value and keep the store sorted in ascending order.
+	 *
+	 * @param value value to be added
+	 */
+	void add(T value);
+
+	/**
+	 * Insert all given values and keep the store sorted in ascending order.
+	 *
+	 * @param values values to be added
+	 */
+	void addAll(Collection<? extends T> values);
+
+	/**
+	 * Return the value at the given index.
+	 *
+	 * @param index index of value
+	 * @return value at given index
+	 */
+	T get(int index);
+
+	/**
+	 * Change the value at the given index to be the given value, if that keeps the store sorted.
+	 *
+	 * @param index index
+	 * @param value new value
+	 * @return true if successful, otherwise false.
+	 */
+	boolean replace(int index, T value);
+
+	/**
+	 * Remove and return the value at the given index.
+	 *
+	 * @param index index
+	 * @return value at given index.
+	 */
+	T delete(int index);
+
+	/**
+	 * Returns a read-only, point-in-time view of this store. Later changes to this store are not
+	 * visible through the view, and the view rejects changes.
+	 *
+	 * @return read-only snapshot
+	 */
+	ScheduleStore<T> snapshot( );
+
+	/**
+	 * Returns an iterator over the values in order. The default reads with get(int) and fails on
+	 * a best-effort basis if the store changes size while iterating.
+	 *
+	 * @return iterator
+	 */
+	@Override
+	default Iterator<T> iterator( ) {
+		return new Iterator<T>() {
+
+			/**
+			 * Spliterator walked one value at a time.
+			 */
+			private final Spliterator<T> values = spliterator();
+
+			/**
+			 * Next value, or null if not fetched yet.
+			 */
+			private T next;
+
+			@Override
+			public boolean hasNext( ) {
+				return next != null || values.tryAdvance(value -> next = value);
+			}
+
+			@Override
+			public T next( ) {
+				if (!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				T value = next;
+				next = null;
+				return value;
+			}
+		};
+	}
+
+	/**
+	 * Returns a SIZED, SUBSIZED, ORDERED and SORTED Spliterator over the values. The default reads
+	 * with get(int) and splits the index range in half.
+	 *
+	 * @return spliterator
+	 */
+	@Override
+	default Spliterator<T> spliterator( ) {
+		return new StoreSpliterator<>(this, 0, size());
+	}
+
+	/**
+	 * Returns a sequential stream of the values in order.
+	 *
+	 * @return stream
+	 */
+	default Stream<T> stream( ) {
+		return StreamSupport.stream(spliterator(), false);
+	}
+
+	/**
+	 * Returns a parallel stream of the values, split evenly over the store.
+	 *
+	 * @return parallel stream
+	 */
+	default Stream<T> parallelStream( ) {
+		return StreamSupport.stream(spliterator(), true);
+	}
+
+}
@@ -1,18 +1,156 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Stream;
+
 /**
  * This is a representation of the class Scheduler.
+ * Stored ScheduleItems are read-only. Edits store a changed copy instead, so a ScheduleItem
+ * obtained from getScheduleItem keeps the values it had when it was read.
+ * Every stored ScheduleItem gets an id that stays the same while its index shifts, so it can
+ * be found and edited again with getById, moveById, changeDurationById and removeById. Ids are
+ * given out by this Scheduler in order of insertion and are not saved by saveTo.
+ * A Scheduler on a ColumnarScheduleStore keeps no ScheduleItem objects of its own: it skips the
+ * overlap and resource indexes and keeps ids with their start minutes only. Overlap, conflict and
+ * resource queries then scan the primitive columns instead, and getById searches the store.
  */
 public class Scheduler{
 
 	/**
-	 * array of ScheduleItems.
+	 * number of ScheduleItems from which undo and redo rebuild the store instead of deleting them
+	 * one at a time.
+	 */
+	private static final int BULK_REMOVE_THRESHOLD = 16;
+
+	/**
+	 * sorted store of ScheduleItems.
+	 */
+	private ScheduleStore<ScheduleItem> ScheduleItems;
+
+	/**
+	 * the store as a ColumnarScheduleStore, or null if it is not one.
+	 */
+	private ColumnarScheduleStore columns;
+
+	/**
+	 * overlap index of the ScheduleItems, or null if columns is set.
+	 */
+	private IntervalIndex overlaps;
+
+	/**
+	 * longest duration stored so far, which bounds the overlap scan if columns is set.
+	 */
+	private int longest;
+
+	/**
+	 * minute-by-minute occupancy of the ScheduleItems.
+	 */
+	private DayOccupancy occupancy;
+
+	/**
+	 * ScheduleItems by id.
+	 */
+	private IdIndex ids;
+
+	/**
+	 * per-resource indexes of the resource-tagged ScheduleItems, or null if columns is set.
+	 */
+	private ResourceIndex resources;
+
+	/**
+	 * last id given to a ScheduleItem.
+	 */
+	private long lastId;
+
+	/**
+	 * number of edits so far, checked by range views.
+	 */
+	private int modCount;
+
+	/**
+	 * recurrence rules, replaced as a whole on every change.
+	 */
+	private RecurrenceRule[] rules = new RecurrenceRule[0];
+
+	/**
+	 * journal every edit is logged to, or null.
+	 */
+	private MutationJournal journal;
+
+	/**
+	 * operation metrics, or null while metrics are disabled.
+	 */
+	private SchedulerMetrics metrics;
+
+	/**
+	 * undo/redo history, or null if disabled.
 	 */
-	private ScheduleSorter<ScheduleItem> ScheduleItems;
+	private EditHistory history;
+
+	/**
+	 * shared String of each description still held by a ScheduleItem, or null if descriptions
+	 * are not interned. Entries are weak, so a description drops out once no ScheduleItem, stored
+	 * or kept for undo, refers to it any more.
+	 */
+	private Map<String, WeakReference<String>> descriptions;
 
 	/**
 	 * Constructor with no arguments.
  	 */
 	public Scheduler(){
-		ScheduleItems = new ScheduleSorter<>();
+		this(new ScheduleSorter<>());
+	}
+
+	/**
+	 * Constructor with the store to keep the ScheduleItems in, e.g. a ColumnarScheduleStore
+	 * for very large schedules. ScheduleItems already in the store are kept; writable ones are
+	 * replaced in the store by read-only copies. With a ColumnarScheduleStore no object-holding
+	 * indexes are built, see the class description.
+	 * @param store sorted store of ScheduleItems
+	 */
+	public Scheduler(ScheduleStore<ScheduleItem> store){
+		if(store==null){
+			throw new IllegalArgumentException("Null ScheduleStore object!");
+		}
+
+		ScheduleItems = store;
+		if(store instanceof ColumnarScheduleStore){
+			columns = (ColumnarScheduleStore) store;
+		}
+		else{
+			overlaps = new IntervalIndex();
+			resources = new ResourceIndex();
+		}
+		occupancy = new DayOccupancy();
+		ids = new IdIndex(columns==null);
+
+		for(int i=0; i<store.size(); i++){
+			ScheduleItem item = store.get(i);
+			boolean fresh = item.getId()==0 || ids.contains(item.getId());
+			if(fresh || !item.isReadOnly()){
+				item = new ScheduleItem(item);
+				if(fresh){
+					item.assignId(++lastId);
+				}
+				item.makeReadOnly();
+				store.replace(i, item);
+			}
+			if(!fresh){
+				lastId = Math.max(lastId, item.getId());
+			}
+			track(item);
+		}
 	}
 
 	/**
@@ -31,24 +169,294 @@ public class Scheduler{
 
 		StringBuilder output = new StringBuilder();
 
-		for(int i=0; i<size(); i++){
-			output.append("[" + i + "]" + getScheduleItem(i).toString() + "\n");
+		try{
+			writeItems(ScheduleItems, output);
+		}catch(IOException ex){
+			//StringBuilder never throws
+			throw new UncheckedIOException(ex);
 		}
-		String out = output.toString();
-		out = out.trim();
-		return out;
+		return output.toString().trim();
+	}
+
+	/**
+	 * Writes the ScheduleItems to out, one "[index]startTime-endTime/description" per line, in the
+	 * same form as toString. Nothing is built up in memory, so even very large schedules can be
+	 * streamed to a buffered Writer or PrintStream.
+	 * @param out destination
+	 * @throws IOException if out fails
+	 */
+	public void writeTo(Appendable out) throws IOException{
+		writeItems(ScheduleItems, out);
+	}
+
+	/**
+	 * Returns a read-only view of the ScheduleItems starting in [from, to), in order. Both ends are
+	 * found by binary search and nothing is copied, so this costs O(log n) plus whatever is read
+	 * from the view. The view reads through to this Scheduler and throws
+	 * ConcurrentModificationException once the Scheduler has been edited; take a snapshot()
+	 * first for a view that stays valid.
+	 * @param from earliest start time, inclusive
+	 * @param to latest start time, exclusive
+	 * @return ScheduleItems starting in the window
+	 */
+	public List<ScheduleItem> range(TimeSimulator from, TimeSimulator to){
+		return rangeView(from, to);
 	}
 
 	/**
-	 * Adds a new ScheduleItem into the list.
+	 * Private implementation of range.
+	 * @param from earliest start time, inclusive
+	 * @param to latest start time, exclusive
+	 * @return ScheduleItems starting in the window
+	 */
+	private List<ScheduleItem> rangeView(TimeSimulator from, TimeSimulator to){
+		if(from==null || to==null){
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		int low = lowerBound(ScheduleItems, from.getMinuteOfDay());
+		int high = Math.max(low, lowerBound(ScheduleItems, to.getMinuteOfDay()));
+		return new ScheduleRange(ScheduleItems, low, high, this, modCount);
+	}
+
+	/**
+	 * Returns number of edits made to this Scheduler so far.
+	 * @return edit count
+	 */
+	int modCount(){
+		return modCount;
+	}
+
+	/**
+	 * Helper that finds the index of the first item of a sorted store starting at or after a minute.
+	 * @param items sorted store
+	 * @param minute minute of the day
+	 * @return index, size of the store if every item starts earlier
+	 */
+	static int lowerBound(ScheduleStore<ScheduleItem> items, int minute){
+		int low = 0;
+		int high = items.size();
+		ColumnarScheduleStore columnar = items instanceof ColumnarScheduleStore ? (ColumnarScheduleStore) items : null;
+		while(low<high){
+			int mid = (low + high) >>> 1;
+			if((columnar==null ? items.get(mid).getStartMinute() : columnar.startMinuteAt(mid))<minute){
+				low = mid + 1;
+			}
+			else{
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Helper that writes the items of a store to out, one "[index]item" per line, with no line
+	 * break after the last one.
+	 * @param items store to write
+	 * @param out destination
+	 * @throws IOException if out fails
+	 */
+	static void writeItems(ScheduleStore<ScheduleItem> items, Appendable out) throws IOException{
+		for(int i=0; i<items.size(); i++){
+			if(i>0){
+				out.append('\n');
+			}
+			out.append('[');
+			appendIndex(out, i);
+			out.append(']');
+			items.get(i).appendTo(out);
+		}
+	}
+
+	/**
+	 * Private helper that writes a non-negative index in decimal digits.
+	 * @param out destination
+	 * @param index index
+	 * @throws IOException if out fails
+	 */
+	private static void appendIndex(Appendable out, int index) throws IOException{
+		int div = 1;
+		while(div <= index / 10){
+			div *= 10;
+		}
+		for(; div>0; div /= 10){
+			out.append((char)('0' + index / div % 10));
+		}
+	}
+
+	/**
+	 * Adds a new ScheduleItem into the list and gives it an id. A read-only copy is stored, so the
+	 * given ScheduleItem stays writable and later changes to it do not affect this Scheduler.
+	 * @param ScheduleItem new ScheduleItem
+	 * @return id of the stored ScheduleItem
+	 */
+	public long addScheduleItem(ScheduleItem ScheduleItem){
+		if(metrics==null){
+			return doAddScheduleItem(ScheduleItem);
+		}
+
+		long begin = System.nanoTime();
+		int capacity = ScheduleItems.capacity();
+		try{
+			return doAddScheduleItem(ScheduleItem);
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.ADD, System.nanoTime() - begin, capacity);
+		}
+	}
+
+	/**
+	 * Private implementation of addScheduleItem.
 	 * @param ScheduleItem new ScheduleItem
+	 * @return id of the stored ScheduleItem
 	 */
-	public void addScheduleItem(ScheduleItem ScheduleItem){
+	private long doAddScheduleItem(ScheduleItem ScheduleItem){
 
 		if(ScheduleItem==null){
 			throw new IllegalArgumentException("Null ScheduleItem object!");
 		}
-		ScheduleItems.add(ScheduleItem);
+		ScheduleItem stored = withNewId(ScheduleItem);
+		ScheduleItems.add(stored);
+		modCount++;
+		track(stored);
+
+		if(history!=null){
+			history.record(null, stored);
+		}
+
+		if(journal!=null){
+			journal.logAdd(stored);
+		}
+		return stored.getId();
+	}
+
+	/**
+	 * Adds all given ScheduleItems into the list in one bulk load. Like addScheduleItem, read-only
+	 * copies are stored and the given ScheduleItems stay writable; ids are given out in the order
+	 * of the collection.
+	 * @param items new ScheduleItems
+	 */
+	public void addAll(Collection<ScheduleItem> items){
+		timedAddAll(items);
+	}
+
+	/**
+	 * Private helper that runs doAddAll and records its metrics.
+	 * @param items new ScheduleItems
+	 */
+	private void timedAddAll(Collection<ScheduleItem> items){
+		if(metrics==null){
+			doAddAll(items);
+			return;
+		}
+
+		long begin = System.nanoTime();
+		int capacity = ScheduleItems.capacity();
+		try{
+			doAddAll(items);
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.ADD_ALL, System.nanoTime() - begin, capacity);
+		}
+	}
+
+	/**
+	 * Private implementation of addAll.
+	 * @param items new ScheduleItems
+	 */
+	private void doAddAll(Collection<ScheduleItem> items){
+
+		if(items==null){
+			throw new IllegalArgumentException("Null ScheduleItem collection!");
+		}
+
+		for(ScheduleItem item : items){
+			if(item==null){
+				throw new IllegalArgumentException("Null ScheduleItem object!");
+			}
+		}
+
+		List<ScheduleItem> stored = new ArrayList<>(items.size());
+		for(ScheduleItem item : items){
+			stored.add(withNewId(item));
+		}
+		ScheduleItems.addAll(stored);
+		modCount++;
+		trackAll(stored);
+
+		if(history!=null && !stored.isEmpty()){
+			history.record(EditHistory.NONE, stored.toArray(new ScheduleItem[0]));
+		}
+
+		if(journal!=null){
+			journal.logAddAll(stored);
+		}
+	}
+
+	/**
+	 * Places each requested task in free time and adds the created ScheduleItems in one bulk load.
+	 * Requests are taken by priority (highest first), then deadline (earliest first), then length
+	 * (longest first, i.e. first-fit decreasing), and each goes to the earliest free run inside its
+	 * window. Free time is kept as a sorted map of intervals, so the whole batch costs
+	 * O(n log n) plus one scan of the day.
+	 * @param requests tasks to place
+	 * @return created ScheduleItems and the requests that did not fit
+	 */
+	public PlacementResult autoPlace(List<TaskRequest> requests){
+		if(requests==null){
+			throw new IllegalArgumentException("Null TaskRequest list!");
+		}
+
+		int n = requests.size();
+		int[] priorities = new int[n];
+		int[] deadlines = new int[n];
+		int[] durations = new int[n];
+		Integer[] order = new Integer[n];
+		for(int i=0; i<n; i++){
+			TaskRequest request = requests.get(i);
+			if(request==null){
+				throw new IllegalArgumentException("Null TaskRequest object!");
+			}
+			priorities[i] = request.getPriority();
+			deadlines[i] = request.getDeadline().getMinuteOfDay();
+			durations[i] = request.getDuration();
+			order[i] = i;
+		}
+		Arrays.sort(order, (x, y) -> {
+			if(priorities[x]!=priorities[y]){
+				return Integer.compare(priorities[y], priorities[x]);
+			}
+			if(deadlines[x]!=deadlines[y]){
+				return Integer.compare(deadlines[x], deadlines[y]);
+			}
+			return Integer.compare(durations[y], durations[x]);
+		});
+
+		FreeIntervals free = new FreeIntervals(occupiedWords());
+		ScheduleItem[] created = new ScheduleItem[order.length];
+		for(int i : order){
+			TaskRequest request = requests.get(i);
+			int start = free.firstFit(durations[i], request.getEarliestStart().getMinuteOfDay(), deadlines[i]);
+			if(start>=0){
+				int end = start + durations[i];
+				free.reserve(start, end);
+				created[i] = new ScheduleItem(TimeSimulator.ofMinuteOfDay(start), TimeSimulator.ofMinuteOfDay(end), request.getDescription());
+			}
+		}
+
+		List<ScheduleItem> placed = new ArrayList<>();
+		List<TaskRequest> unplaced = new ArrayList<>();
+		for(int i=0; i<created.length; i++){
+			if(created[i]!=null){
+				placed.add(created[i]);
+			}
+			else{
+				unplaced.add(requests.get(i));
+			}
+		}
+
+		if(!placed.isEmpty()){
+			timedAddAll(placed);
+		}
+		return new PlacementResult(placed, unplaced);
 	}
 
 	/**
@@ -58,7 +466,37 @@ public class Scheduler{
 	 * @return true if successful, otherwise false.
 	 */
 	public boolean moveScheduleItem(int index, TimeSimulator newStart){
-		if(index<0 || index>=size()){
+		return timedMoveScheduleItem(index, newStart);
+	}
+
+	/**
+	 * Private helper that runs moveScheduleItem and records its metrics.
+	 * @param index index
+	 * @param newStart new start time
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean timedMoveScheduleItem(int index, TimeSimulator newStart){
+		if(metrics==null){
+			return doMoveScheduleItem(index, newStart);
+		}
+
+		long begin = System.nanoTime();
+		int capacity = ScheduleItems.capacity();
+		try{
+			return doMoveScheduleItem(index, newStart);
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.MOVE, System.nanoTime() - begin, capacity);
+		}
+	}
+
+	/**
+	 * Private implementation of moveScheduleItem.
+	 * @param index index
+	 * @param newStart new start time
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean doMoveScheduleItem(int index, TimeSimulator newStart){
+		if(index<0 || index>=ScheduleItems.size()){
 			return false;
 		}
 
@@ -67,18 +505,27 @@ public class Scheduler{
 		}
 
 		ScheduleItem theScheduleItem = ScheduleItems.get(index);
-		ScheduleItem temp = theScheduleItem;
-		theScheduleItem.moveStart(newStart);
+		ScheduleItem moved = new ScheduleItem(theScheduleItem);
 
-		if(!theScheduleItem.moveStart(newStart)){
+		if(!moved.moveStart(newStart)){
 			return false;
 		}
 
-		if(newStart.compareTo(temp.getStart())<0){
-			ScheduleItems.delete(index);
-			ScheduleItems.add(theScheduleItem);
+		moved.makeReadOnly();
+		untrack(theScheduleItem);
+		ScheduleItems.delete(index);
+		ScheduleItems.add(moved);
+		modCount++;
+		track(moved);
+
+		if(history!=null){
+			history.record(theScheduleItem, moved);
+		}
+
+		if(journal!=null){
+			journal.logMove(index, newStart.getMinuteOfDay());
 		}
-		
+
 		return true;
 	}
 
@@ -89,17 +536,61 @@ public class Scheduler{
 	 * @param minute new duration
 	 * @return true if successful, otherwise false.
 	 */
-	public boolean changeDuration (int index, int minute){
+	public boolean changeDuration(int index, int minute){
+		return timedChangeDuration(index, minute);
+	}
+
+	/**
+	 * Private helper that runs changeDuration and records its metrics.
+	 * @param index index
+	 * @param minute new duration
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean timedChangeDuration(int index, int minute){
+		if(metrics==null){
+			return doChangeDuration(index, minute);
+		}
+
+		long begin = System.nanoTime();
+		int capacity = ScheduleItems.capacity();
+		try{
+			return doChangeDuration(index, minute);
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.CHANGE_DURATION, System.nanoTime() - begin, capacity);
+		}
+	}
+
+	/**
+	 * Private implementation of changeDuration.
+	 * @param index index
+	 * @param minute new duration
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean doChangeDuration(int index, int minute){
 
-		if(index<0 || index>=size() || minute<0)
+		if(index<0 || index>=ScheduleItems.size() || minute<0)
 			return false;
 
 		ScheduleItem myScheduleItem = ScheduleItems.get(index);
-		myScheduleItem.changeDuration(minute);
+		ScheduleItem changed = new ScheduleItem(myScheduleItem);
 
-		if(myScheduleItem.changeDuration(minute)==false)
+		if(!changed.changeDuration(minute))
 			return false;
 
+		changed.makeReadOnly();
+		untrack(myScheduleItem);
+		ScheduleItems.replace(index, changed);
+		modCount++;
+		track(changed);
+
+		if(history!=null){
+			history.record(myScheduleItem, changed);
+		}
+
+		if(journal!=null){
+			journal.logDuration(index, minute);
+		}
+
 		return true;
 	}
 
@@ -110,16 +601,69 @@ public class Scheduler{
 	 * @return true if successful, otherwise false.
 	 */
 	public boolean changeDescription(int index, String description){
-		if(index<0 || index>size())
+		return timedChangeDescription(index, description);
+	}
+
+	/**
+	 * Private helper that runs changeDescription and records its metrics.
+	 * @param index index
+	 * @param description new description
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean timedChangeDescription(int index, String description){
+		if(metrics==null){
+			return doChangeDescription(index, description);
+		}
+
+		long begin = System.nanoTime();
+		int capacity = ScheduleItems.capacity();
+		try{
+			return doChangeDescription(index, description);
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.CHANGE_DESCRIPTION, System.nanoTime() - begin, capacity);
+		}
+	}
+
+	/**
+	 * Private implementation of changeDescription.
+	 * @param index index
+	 * @param description new description
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean doChangeDescription(int index, String description){
+		if(index<0 || index>=ScheduleItems.size())
 			return false;
 
 		ScheduleItem myScheduleItem = ScheduleItems.get(index);
+		ScheduleItem changed = new ScheduleItem(myScheduleItem);
 
 		if(description==null){
-			myScheduleItem.setDescription("");
+			changed.setDescription("");
 		}
+		else{
+			changed.setDescription(interned(description));
+		}
+
+		changed.makeReadOnly();
+		if(columns==null){
+			overlaps.remove(myScheduleItem);
+			resources.remove(myScheduleItem);
+		}
+		ScheduleItems.replace(index, changed);
+		modCount++;
+		if(columns==null){
+			overlaps.add(changed);
+			resources.add(changed);
+		}
+		ids.put(changed);
 
-		myScheduleItem.setDescription(description);
+		if(history!=null){
+			history.record(myScheduleItem, changed);
+		}
+
+		if(journal!=null){
+			journal.logDescription(index, changed.getDescription());
+		}
 
 		return true;
 	}
@@ -130,11 +674,49 @@ public class Scheduler{
 	 * @return true if successful, otherwise false.
 	 */
 	public boolean removeScheduleItem(int index){
+		return timedRemoveScheduleItem(index);
+	}
 
-		if(index<0 || index>size())
+	/**
+	 * Private helper that runs removeScheduleItem and records its metrics.
+	 * @param index index
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean timedRemoveScheduleItem(int index){
+		if(metrics==null){
+			return doRemoveScheduleItem(index);
+		}
+
+		long begin = System.nanoTime();
+		int capacity = ScheduleItems.capacity();
+		try{
+			return doRemoveScheduleItem(index);
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.REMOVE, System.nanoTime() - begin, capacity);
+		}
+	}
+
+	/**
+	 * Private implementation of removeScheduleItem.
+	 * @param index index
+	 * @return true if successful, otherwise false.
+	 */
+	private boolean doRemoveScheduleItem(int index){
+
+		if(index<0 || index>=ScheduleItems.size())
 			return false;
 
-		ScheduleItems.delete(index);
+		ScheduleItem removed = ScheduleItems.delete(index);
+		untrack(removed);
+		modCount++;
+
+		if(history!=null){
+			history.record(removed, null);
+		}
+
+		if(journal!=null){
+			journal.logRemove(index);
+		}
 		return true;
 	}
 
@@ -144,11 +726,816 @@ public class Scheduler{
 	 * @return ScheduleItem at specified index.
 	 */
 	public ScheduleItem getScheduleItem(int index){
+		if(metrics==null){
+			return doGetScheduleItem(index);
+		}
+
+		long begin = System.nanoTime();
+		try{
+			return doGetScheduleItem(index);
+		}finally{
+			metrics.record(SchedulerMetrics.Operation.GET, System.nanoTime() - begin);
+		}
+	}
+
+	/**
+	 * Implementation of getScheduleItem without metrics, so ConcurrentScheduler can retry it and
+	 * still record the call once.
+	 * @param index index
+	 * @return ScheduleItem at specified index.
+	 */
+	ScheduleItem doGetScheduleItem(int index){
 
-		if(index<0 || index>size())
+		if(index<0 || index>=ScheduleItems.size())
 			return null;
 
 		return ScheduleItems.get(index);
 	}
 
+	/**
+	 * Return the ScheduleItem with the given id.
+	 * @param id id returned by addScheduleItem or getId
+	 * @return ScheduleItem, or null if no stored ScheduleItem has the id
+	 */
+	public ScheduleItem getById(long id){
+		if(columns==null){
+			return ids.get(id);
+		}
+
+		int index = findIndex(id);
+		return index<0 ? null : ScheduleItems.get(index);
+	}
+
+	/**
+	 * Return the current index of the ScheduleItem with the given id, in O(log n) plus the number
+	 * of ScheduleItems starting at the same minute.
+	 * @param id id
+	 * @return index, or -1 if no stored ScheduleItem has the id
+	 */
+	public int indexOf(long id){
+		return findIndex(id);
+	}
+
+	/**
+	 * Moves the ScheduleItem with the given id to start at newStart.
+	 * @param id id
+	 * @param newStart new start time
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean moveById(long id, TimeSimulator newStart){
+		int index = findIndex(id);
+		return index>=0 && timedMoveScheduleItem(index, newStart);
+	}
+
+	/**
+	 * Changes the duration of the ScheduleItem with the given id to be the given number of minutes.
+	 * @param id id
+	 * @param minute new duration
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean changeDurationById(long id, int minute){
+		int index = findIndex(id);
+		return index>=0 && timedChangeDuration(index, minute);
+	}
+
+	/**
+	 * Change the description of the ScheduleItem with the given id.
+	 * @param id id
+	 * @param description new description
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean changeDescriptionById(long id, String description){
+		int index = findIndex(id);
+		return index>=0 && timedChangeDescription(index, description);
+	}
+
+	/**
+	 * Remove the ScheduleItem with the given id.
+	 * @param id id
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean removeById(long id){
+		int index = findIndex(id);
+		return index>=0 && timedRemoveScheduleItem(index);
+	}
+
+	/**
+	 * Starts recording operation counts, latencies and store gauges. Until this is called every
+	 * operation only pays for one null check.
+	 * @return metrics of this Scheduler, the existing ones if already enabled
+	 */
+	public SchedulerMetrics enableMetrics(){
+		if(metrics==null){
+			metrics = new SchedulerMetrics(ScheduleItems);
+		}
+		return metrics;
+	}
+
+	/**
+	 * Stops recording metrics and drops the recorded ones.
+	 */
+	public void disableMetrics(){
+		metrics = null;
+	}
+
+	/**
+	 * Returns the metrics of this Scheduler.
+	 * @return metrics, or null while metrics are disabled
+	 */
+	public SchedulerMetrics getMetrics(){
+		return metrics;
+	}
+
+	/**
+	 * Starts recording edits for undo and redo, keeping at most limit steps. Each add, addAll,
+	 * autoPlace, move, change and remove is one step. A step holds references to the ScheduleItems
+	 * it replaced, so history costs memory per edit, not per ScheduleItem in the schedule.
+	 * Recurrence rules are not recorded. Replaces any earlier history.
+	 * @param limit number of steps kept, at least 1
+	 */
+	public void enableHistory(int limit){
+		history = new EditHistory(limit);
+	}
+
+	/**
+	 * Stops recording edits and drops the history.
+	 */
+	public void disableHistory(){
+		history = null;
+	}
+
+	/**
+	 * Returns number of edits that can be undone.
+	 * @return undo count, 0 if history is disabled
+	 */
+	public int undoCount(){
+		return history==null ? 0 : history.undoCount();
+	}
+
+	/**
+	 * Returns number of undone edits that can be redone.
+	 * @return redo count, 0 if history is disabled
+	 */
+	public int redoCount(){
+		return history==null ? 0 : history.redoCount();
+	}
+
+	/**
+	 * Undoes the most recent edit. The ScheduleItems it put in are taken out and the ones it took
+	 * out are put back with their ids. Undoing is logged to the journal like any other edit.
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean undo(){
+		EditHistory.Step step = history==null ? null : history.undo();
+		if(step==null){
+			return false;
+		}
+
+		removeStored(step.after);
+		addStored(step.before);
+		return true;
+	}
+
+	/**
+	 * Redoes the most recently undone edit.
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean redo(){
+		EditHistory.Step step = history==null ? null : history.redo();
+		if(step==null){
+			return false;
+		}
+
+		removeStored(step.before);
+		addStored(step.after);
+		return true;
+	}
+
+	/**
+	 * Returns the journal edits are logged to.
+	 * @return journal, or null if edits are not logged
+	 */
+	public MutationJournal getJournal(){
+		return journal;
+	}
+
+	/**
+	 * Sets the journal every following edit is logged to.
+	 * @param journal journal, or null to stop logging
+	 */
+	public void setJournal(MutationJournal journal){
+		this.journal = journal;
+	}
+
+	/**
+	 * Starts interning the descriptions of ScheduleItems stored from now on. Stored ScheduleItems
+	 * with equal descriptions then share one String, which saves memory in very large schedules
+	 * with repeated descriptions and lets String.equals return on identity. ScheduleItems already
+	 * stored keep their own Strings. Descriptions no longer used by any ScheduleItem are dropped
+	 * after they are garbage collected, so removing or changing ScheduleItems does not leave
+	 * the interner growing. A ColumnarScheduleStore interns descriptions by itself.
+	 */
+	public void enableDescriptionInterning(){
+		if(descriptions==null){
+			descriptions = new WeakHashMap<>();
+		}
+	}
+
+	/**
+	 * Stops interning descriptions and drops the interned Strings.
+	 */
+	public void disableDescriptionInterning(){
+		descriptions = null;
+	}
+
+	/**
+	 * Returns whether descriptions are interned.
+	 * @return true if interned, otherwise false.
+	 */
+	public boolean isDescriptionInterning(){
+		return descriptions!=null;
+	}
+
+	/**
+	 * Saves the ScheduleItems, with their resources, to a binary schedule file, see ScheduleFile.
+	 * If a journal is set, it is synced first and the file records the durable journal position
+	 * it covers, so recover only replays later edits. Once the file is on disk the journal is
+	 * compacted to the records after that position, so older snapshots can no longer be
+	 * recovered with it.
+	 * @param path destination file, replaced if it exists
+	 * @throws IOException if writing fails
+	 */
+	public void saveTo(Path path) throws IOException{
+		if(journal==null){
+			ScheduleFile.write(ScheduleItems, 0, path);
+			return;
+		}
+
+		journal.sync();
+		long position = journal.durablePosition();
+		ScheduleFile.write(ScheduleItems, position, path);
+		journal.compact(position);
+	}
+
+	/**
+	 * Loads a Scheduler from a binary schedule file written by saveTo.
+	 * @param path file to read
+	 * @return loaded Scheduler
+	 * @throws IOException if reading fails or the file is not a valid schedule file
+	 */
+	public static Scheduler loadFrom(Path path) throws IOException{
+		return loadFrom(path, new ScheduleSorter<>());
+	}
+
+	/**
+	 * Loads a Scheduler that keeps its ScheduleItems in the given store from a binary schedule file.
+	 * @param path file to read
+	 * @param store empty store to load into
+	 * @return loaded Scheduler
+	 * @throws IOException if reading fails or the file is not a valid schedule file
+	 */
+	public static Scheduler loadFrom(Path path, ScheduleStore<ScheduleItem> store) throws IOException{
+		List<ScheduleItem> items = ScheduleFile.read(path);
+		Scheduler scheduler = new Scheduler(store);
+		scheduler.addAll(items);
+		return scheduler;
+	}
+
+	/**
+	 * Recovers a Scheduler after a restart or crash: loads the snapshot, if there is one, replays
+	 * the journal from the position the snapshot covers, and keeps logging to the journal. Both
+	 * the snapshot and the journal keep the resources of each ScheduleItem.
+	 * @param snapshot schedule file written by saveTo, may not exist yet
+	 * @param journalPath journal file, created if missing
+	 * @param fsyncIntervalMillis longest time logged edits may stay unforced; 0 forces every batch
+	 * @return recovered Scheduler with the journal set
+	 * @throws IOException if reading fails or the files do not match
+	 */
+	public static Scheduler recover(Path snapshot, Path journalPath, long fsyncIntervalMillis) throws IOException{
+		return recover(snapshot, journalPath, fsyncIntervalMillis, new ScheduleSorter<>());
+	}
+
+	/**
+	 * Recovers a Scheduler that keeps its ScheduleItems in the given store, see
+	 * recover(Path, Path, long).
+	 * @param snapshot schedule file written by saveTo, may not exist yet
+	 * @param journalPath journal file, created if missing
+	 * @param fsyncIntervalMillis longest time logged edits may stay unforced; 0 forces every batch
+	 * @param store empty store to recover into
+	 * @return recovered Scheduler with the journal set
+	 * @throws IOException if reading fails or the files do not match
+	 */
+	public static Scheduler recover(Path snapshot, Path journalPath, long fsyncIntervalMillis, ScheduleStore<ScheduleItem> store) throws IOException{
+		Scheduler scheduler;
+		long position = 0;
+
+		if(Files.exists(snapshot)){
+			scheduler = loadFrom(snapshot, store);
+			position = ScheduleFile.readJournalPosition(snapshot);
+		}else{
+			scheduler = new Scheduler(store);
+		}
+
+		long end = MutationJournal.replay(journalPath, position, scheduler);
+		scheduler.setJournal(MutationJournal.open(journalPath, end, fsyncIntervalMillis));
+		return scheduler;
+	}
+
+	/**
+	 * Returns an immutable, point-in-time view of the ScheduleItems in O(1). The view shares the
+	 * current storage and stays unchanged while this Scheduler keeps being edited.
+	 * @return snapshot of the Scheduler
+	 */
+	public SchedulerSnapshot snapshot(){
+		return new SchedulerSnapshot(ScheduleItems.snapshot());
+	}
+
+	/**
+	 * Returns a sequential stream of the ScheduleItems in order, read straight from the store.
+	 * The stream fails with ConcurrentModificationException if ScheduleItems are added or removed
+	 * while it runs.
+	 * @return stream of ScheduleItems
+	 */
+	public Stream<ScheduleItem> stream(){
+		return ScheduleItems.stream();
+	}
+
+	/**
+	 * Returns a parallel stream of the ScheduleItems. The store is split evenly without copying,
+	 * so aggregates over large schedules use every core.
+	 * @return parallel stream of ScheduleItems
+	 */
+	public Stream<ScheduleItem> parallelStream(){
+		return ScheduleItems.parallelStream();
+	}
+
+	/**
+	 * Returns the ScheduleItems overlapping the window [from, to), ordered by start time.
+	 * @param from start of the window
+	 * @param to end of the window
+	 * @return overlapping ScheduleItems
+	 */
+	public List<ScheduleItem> findOverlapping(TimeSimulator from, TimeSimulator to){
+		List<ScheduleItem> result = columns==null ? overlaps.findOverlapping(from, to) : scanOverlapping(from, to);
+		if(rules.length==0){
+			return result;
+		}
+
+		for(RecurrenceRule rule : rules){
+			int fence = rule.firstStartingAtOrAfter(to.getMinuteOfDay());
+			for(int k=rule.firstEndingAfter(from.getMinuteOfDay()); k<fence; k++){
+				result.add(rule.occurrence(k));
+			}
+		}
+		result.sort(null);
+		return result;
+	}
+
+	/**
+	 * Returns every pair of ScheduleItems that overlap each other, including rule occurrences.
+	 * @return conflicting pairs, earlier ScheduleItem first
+	 */
+	public List<ScheduleItem[]> findAllConflicts(){
+		if(rules.length==0){
+			return columns==null ? overlaps.findAllConflicts() : scanConflicts();
+		}
+
+		// sweep over the merged day, keeping the ScheduleItems that have not ended yet
+		List<ScheduleItem[]> result = new ArrayList<>();
+		List<ScheduleItem> active = new ArrayList<>();
+		Iterator<ScheduleItem> day = new OccurrenceIterator(new ScheduleRange(ScheduleItems, 0, ScheduleItems.size(), null, 0), rules, 0, DayOccupancy.MINUTES_PER_DAY);
+		while(day.hasNext()){
+			ScheduleItem item = day.next();
+			active.removeIf(earlier -> earlier.getEndMinute()<=item.getStartMinute());
+			for(ScheduleItem earlier : active){
+				if(item.getStartMinute()<earlier.getEndMinute() && item.getEndMinute()>earlier.getStartMinute()){
+					result.add(new ScheduleItem[]{earlier, item});
+				}
+			}
+			active.add(item);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds a recurrence rule. Its occurrences are not stored; they show up in occurrences(),
+	 * findOverlapping, findAllConflicts and count as busy time for findFreeSlots, firstFitSlot and
+	 * autoPlace. Rules are not written to the journal or to saved files.
+	 * @param rule new rule
+	 */
+	public void addRule(RecurrenceRule rule){
+		if(rule==null){
+			throw new IllegalArgumentException("Null RecurrenceRule object!");
+		}
+
+		RecurrenceRule[] changed = Arrays.copyOf(rules, rules.length + 1);
+		changed[rules.length] = rule;
+		rules = changed;
+	}
+
+	/**
+	 * Removes a recurrence rule.
+	 * @param rule rule to remove
+	 * @return true if successful, otherwise false.
+	 */
+	public boolean removeRule(RecurrenceRule rule){
+		for(int i=0; i<rules.length; i++){
+			if(rules[i]==rule){
+				RecurrenceRule[] changed = new RecurrenceRule[rules.length - 1];
+				System.arraycopy(rules, 0, changed, 0, i);
+				System.arraycopy(rules, i + 1, changed, i, changed.length - i);
+				rules = changed;
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the recurrence rules in the order they were added.
+	 * @return rules
+	 */
+	public List<RecurrenceRule> getRules(){
+		return Collections.unmodifiableList(Arrays.asList(rules.clone()));
+	}
+
+	/**
+	 * Returns the ScheduleItems and rule occurrences starting in [from, to), merged in start order.
+	 * Occurrences are only created while iterating, one at a time. Like range(), the result reads
+	 * through to this Scheduler and fails once the Scheduler has been edited.
+	 * @param from earliest start time, inclusive
+	 * @param to latest start time, exclusive
+	 * @return ScheduleItems and occurrences starting in the window
+	 */
+	public Iterable<ScheduleItem> occurrences(TimeSimulator from, TimeSimulator to){
+		List<ScheduleItem> stored = rangeView(from, to);
+		RecurrenceRule[] expanded = rules;
+		int low = from.getMinuteOfDay();
+		int high = to.getMinuteOfDay();
+		return () -> new OccurrenceIterator(stored, expanded, low, high);
+	}
+
+	/**
+	 * Returns every free slot of at least minDurationMinutes minutes, in order.
+	 * Each slot is returned as a ScheduleItem with an empty description.
+	 * @param minDurationMinutes minimum slot length in minutes
+	 * @return free slots
+	 */
+	public List<ScheduleItem> findFreeSlots(int minDurationMinutes){
+		if(rules.length==0){
+			return occupancy.findFreeSlots(minDurationMinutes);
+		}
+		return DayOccupancy.findFreeSlots(occupiedWords(), minDurationMinutes);
+	}
+
+	/**
+	 * Returns the earliest start time, not before notBefore, where duration minutes are free.
+	 * @param duration length of the slot in minutes
+	 * @param notBefore earliest acceptable start time
+	 * @return start time of the slot, or null if nothing fits
+	 */
+	public TimeSimulator firstFitSlot(int duration, TimeSimulator notBefore){
+		if(rules.length==0){
+			return occupancy.firstFitSlot(duration, notBefore);
+		}
+		if(notBefore==null){
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		int start = DayOccupancy.firstFit(occupiedWords(), duration, notBefore.getMinuteOfDay());
+		return start<0 ? null : TimeSimulator.ofMinuteOfDay(start);
+	}
+
+	/**
+	 * Returns the ScheduleItems that book the given resource, in start order.
+	 * @param resource resource
+	 * @return ScheduleItems of the resource
+	 */
+	public List<ScheduleItem> itemsFor(Resource resource){
+		if(resource==null){
+			throw new IllegalArgumentException("Null Resource object!");
+		}
+		if(columns!=null){
+			List<ScheduleItem> result = new ArrayList<>();
+			for(int i=0; i<columns.size(); i++){
+				if(columns.resourcesAt(i).contains(resource)){
+					result.add(columns.get(i));
+				}
+			}
+			return Collections.unmodifiableList(result);
+		}
+		return resources.items(resource);
+	}
+
+	/**
+	 * Returns every slot of at least duration minutes in which none of the given resources is
+	 * booked, as ScheduleItems with an empty description. The per-resource occupancy bitmaps are
+	 * ORed word by word, so the cost grows with the number of resources, not ScheduleItems; on a
+	 * ColumnarScheduleStore the columns are scanned instead.
+	 * ScheduleItems without resources and recurrence rules do not block any resource.
+	 * @param wanted resources that must all be free
+	 * @param duration minimum slot length in minutes
+	 * @return common free slots in order
+	 */
+	public List<ScheduleItem> findCommonFreeSlots(Set<Resource> wanted, int duration){
+		if(columns==null){
+			return resources.findCommonFreeSlots(wanted, duration);
+		}
+		if(wanted==null){
+			throw new IllegalArgumentException("Null Resource set!");
+		}
+
+		long[] words = new long[DayOccupancy.WORDS];
+		for(int i=0; i<columns.size(); i++){
+			if(!Collections.disjoint(columns.resourcesAt(i), wanted)){
+				for(int m=columns.startMinuteAt(i); m<columns.endMinuteAt(i); m++){
+					words[m >>> 6] |= 1L << m;
+				}
+			}
+		}
+		return DayOccupancy.findFreeSlots(words, duration);
+	}
+
+	/**
+	 * Private helper for a columnar store that returns the ScheduleItems overlapping [from, to) by
+	 * scanning the start and end columns. No ScheduleItem longer than longest is stored, so the
+	 * scan starts at the first ScheduleItem that could still reach from.
+	 * @param from start of the window
+	 * @param to end of the window
+	 * @return overlapping ScheduleItems in start order
+	 */
+	private List<ScheduleItem> scanOverlapping(TimeSimulator from, TimeSimulator to){
+		if(from==null || to==null){
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		int fromMinute = from.getMinuteOfDay();
+		int fence = lowerBound(columns, to.getMinuteOfDay());
+		List<ScheduleItem> result = new ArrayList<>();
+		for(int i=lowerBound(columns, fromMinute - longest); i<fence; i++){
+			if(columns.endMinuteAt(i)>fromMinute){
+				result.add(columns.get(i));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Private helper for a columnar store that returns every overlapping pair by scanning the
+	 * start and end columns.
+	 * @return conflicting pairs, earlier ScheduleItem first
+	 */
+	private List<ScheduleItem[]> scanConflicts(){
+		List<ScheduleItem[]> result = new ArrayList<>();
+		int size = columns.size();
+		for(int i=0; i<size; i++){
+			int start = columns.startMinuteAt(i);
+			int end = columns.endMinuteAt(i);
+			ScheduleItem current = null;
+			for(int j=i + 1; j<size && columns.startMinuteAt(j)<end; j++){
+				if(columns.endMinuteAt(j)>start){
+					if(current==null){
+						current = columns.get(i);
+					}
+					result.add(new ScheduleItem[]{current, columns.get(j)});
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Private helper that returns the occupancy bitmap of the stored ScheduleItems and every rule.
+	 * @return occupancy bitmap, one bit per minute
+	 */
+	private long[] occupiedWords(){
+		long[] words = occupancy.toWords();
+		for(RecurrenceRule rule : rules){
+			rule.markOccupied(words);
+		}
+		return words;
+	}
+
+	/**
+	 * Private helper that returns a read-only copy of item with a new id. item itself is never
+	 * stored, so the caller can keep changing it.
+	 * @param item ScheduleItem to store
+	 * @return ScheduleItem to store
+	 */
+	private ScheduleItem withNewId(ScheduleItem item){
+		ScheduleItem stored = new ScheduleItem(item);
+		stored.assignId(++lastId);
+		if(descriptions!=null){
+			stored.setDescription(interned(stored.getDescription()));
+		}
+		stored.makeReadOnly();
+		return stored;
+	}
+
+	/**
+	 * Private helper that returns the shared String equal to description, or description itself
+	 * if descriptions are not interned.
+	 * @param description description
+	 * @return description to store
+	 */
+	private String interned(String description){
+		if(descriptions==null){
+			return description;
+		}
+		WeakReference<String> entry = descriptions.get(description);
+		String shared = entry==null ? null : entry.get();
+		if(shared==null){
+			descriptions.put(description, new WeakReference<>(description));
+			return description;
+		}
+		return shared;
+	}
+
+	/**
+	 * Private helper that returns the current index of the ScheduleItem with the given id. Binary
+	 * search finds the first ScheduleItem with the same start time, then the ScheduleItems
+	 * starting at that minute are scanned for the id.
+	 * @param id id
+	 * @return index, or -1 if no stored ScheduleItem has the id
+	 */
+	private int findIndex(long id){
+		int start = ids.startOf(id);
+		if(start<0){
+			return -1;
+		}
+
+		for(int i=lowerBound(ScheduleItems, start); i<ScheduleItems.size(); i++){
+			long candidate;
+			if(columns==null){
+				ScheduleItem item = ScheduleItems.get(i);
+				if(item.getStartMinute()!=start){
+					break;
+				}
+				candidate = item.getId();
+			}
+			else{
+				if(columns.startMinuteAt(i)!=start){
+					break;
+				}
+				candidate = columns.idAt(i);
+			}
+
+			if(candidate==id){
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Private helper for undo and redo that takes stored ScheduleItems out, found by id. Large
+	 * batches are found in one pass over the store, which is then rebuilt together with the
+	 * overlap index instead of deleting one ScheduleItem at a time.
+	 * @param items ScheduleItems to take out
+	 */
+	private void removeStored(ScheduleItem[] items){
+		if(items.length==0){
+			return;
+		}
+
+		int[] indexes = new int[items.length];
+		if(items.length<BULK_REMOVE_THRESHOLD){
+			for(int i=0; i<items.length; i++){
+				indexes[i] = findIndex(items[i].getId());
+				if(indexes[i]<0){
+					throw new IllegalStateException("History does not match the schedule!");
+				}
+			}
+			Arrays.sort(indexes);
+
+			for(int i=indexes.length - 1; i>=0; i--){
+				ScheduleItems.delete(indexes[i]);
+			}
+			for(ScheduleItem item : items){
+				untrack(item);
+			}
+		}
+		else{
+			IdIndex removing = new IdIndex();
+			for(ScheduleItem item : items){
+				removing.put(item);
+			}
+
+			List<ScheduleItem> kept = new ArrayList<>(Math.max(ScheduleItems.size() - items.length, 0));
+			int found = 0;
+			for(int i=0; i<ScheduleItems.size(); i++){
+				ScheduleItem item = ScheduleItems.get(i);
+				if(removing.get(item.getId())!=null && found<indexes.length){
+					indexes[found++] = i;
+				}
+				else{
+					kept.add(item);
+				}
+			}
+			if(found!=indexes.length){
+				throw new IllegalStateException("History does not match the schedule!");
+			}
+
+			for(int i=ScheduleItems.size() - 1; i>=0; i--){
+				ScheduleItems.delete(i);
+			}
+			ScheduleItems.addAll(kept);
+
+			if(columns==null){
+				overlaps.clear();
+				overlaps.addAll(kept);
+			}
+			for(ScheduleItem item : items){
+				occupancy.remove(item);
+				ids.remove(item.getId());
+				if(columns==null){
+					resources.remove(item);
+				}
+			}
+		}
+		modCount++;
+
+		if(journal!=null){
+			for(int i=indexes.length - 1; i>=0; i--){
+				journal.logRemove(indexes[i]);
+			}
+		}
+	}
+
+	/**
+	 * Private helper for undo and redo that puts read-only ScheduleItems back with their ids.
+	 * @param items ScheduleItems to put in
+	 */
+	private void addStored(ScheduleItem[] items){
+		if(items.length==0){
+			return;
+		}
+
+		if(items.length==1){
+			ScheduleItems.add(items[0]);
+			track(items[0]);
+			if(journal!=null){
+				journal.logAdd(items[0]);
+			}
+		}
+		else{
+			List<ScheduleItem> batch = Arrays.asList(items);
+			ScheduleItems.addAll(batch);
+			trackAll(batch);
+			if(journal!=null){
+				journal.logAddAll(batch);
+			}
+		}
+		modCount++;
+	}
+
+	/**
+	 * Private helper that adds a ScheduleItem to the overlap index, occupancy map, id index and
+	 * resource indexes.
+	 * @param item ScheduleItem
+	 */
+	private void track(ScheduleItem item){
+		if(columns==null){
+			overlaps.add(item);
+			resources.add(item);
+		}
+		else{
+			longest = Math.max(longest, item.getEndMinute() - item.getStartMinute());
+		}
+		occupancy.add(item);
+		ids.put(item);
+	}
+
+	/**
+	 * Private helper that adds ScheduleItems to the indexes in one bulk load, like track.
+	 * @param items ScheduleItems
+	 */
+	private void trackAll(List<ScheduleItem> items){
+		if(columns==null){
+			overlaps.addAll(items);
+			resources.addAll(items);
+		}
+		occupancy.addAll(items);
+		for(ScheduleItem item : items){
+			if(columns!=null){
+				longest = Math.max(longest, item.getEndMinute() - item.getStartMinute());
+			}
+			ids.put(item);
+		}
+	}
+
+	/**
+	 * Private helper that removes a ScheduleItem from the overlap index, occupancy map, id index
+	 * and resource indexes. Must be called before the times of the ScheduleItem change.
+	 * @param item ScheduleItem
+	 */
+	private void untrack(ScheduleItem item){
+		if(columns==null){
+			overlaps.remove(item);
+			resources.remove(item);
+		}
+		occupancy.remove(item);
+		ids.remove(item.getId());
+	}
+
 }
\ No newline at end of file
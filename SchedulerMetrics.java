@@ -0,0 +1,342 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * This class represents the operation metrics of one Scheduler, see Scheduler.enableMetrics().
+ * Every instrumented call records its latency in nanoseconds into the histogram of its
+ * operation. Gauges for the size and capacity of the store are read when a report is taken;
+ * resize events are counted by comparing the capacity before and after each edit.
+ */
+public class SchedulerMetrics {
+
+	/**
+	 * Instrumented Scheduler operations.
+	 */
+	public enum Operation {
+		/**
+		 * addScheduleItem.
+		 */
+		ADD,
+
+		/**
+		 * addAll.
+		 */
+		ADD_ALL,
+
+		/**
+		 * moveScheduleItem.
+		 */
+		MOVE,
+
+		/**
+		 * changeDuration.
+		 */
+		CHANGE_DURATION,
+
+		/**
+		 * changeDescription.
+		 */
+		CHANGE_DESCRIPTION,
+
+		/**
+		 * removeScheduleItem.
+		 */
+		REMOVE,
+
+		/**
+		 * getScheduleItem.
+		 */
+		GET
+	}
+
+	/**
+	 * All operations, indexed by ordinal.
+	 */
+	private static final Operation[] OPERATIONS = Operation.values();
+
+	/**
+	 * Store whose size and capacity are reported.
+	 */
+	private final ScheduleStore<?> store;
+
+	/**
+	 * Latency histogram of each operation, indexed by ordinal.
+	 */
+	private final LatencyHistogram[] latencies = new LatencyHistogram[OPERATIONS.length];
+
+	/**
+	 * Number of edits that made the store grow.
+	 */
+	private final AtomicLong grows = new AtomicLong();
+
+	/**
+	 * Number of edits that made the store shrink.
+	 */
+	private final AtomicLong shrinks = new AtomicLong();
+
+	/**
+	 * Constructor for the metrics of the given store.
+	 *
+	 * @param store store whose size and capacity are reported
+	 */
+	SchedulerMetrics(ScheduleStore<?> store) {
+		this.store = store;
+		for (int i = 0; i < latencies.length; i++) {
+			latencies[i] = new LatencyHistogram();
+		}
+	}
+
+	/**
+	 * Records one call of a read-only operation.
+	 *
+	 * @param operation operation
+	 * @param nanos latency in nanoseconds
+	 */
+	void record(Operation operation, long nanos) {
+		latencies[operation.ordinal()].record(nanos);
+	}
+
+	/**
+	 * Records one call of an edit, and a resize event if the capacity of the store changed.
+	 *
+	 * @param operation operation
+	 * @param nanos latency in nanoseconds
+	 * @param capacityBefore capacity of the store before the call
+	 */
+	void record(Operation operation, long nanos, int capacityBefore) {
+		latencies[operation.ordinal()].record(nanos);
+
+		int capacity = store.capacity();
+		if (capacity > capacityBefore) {
+			grows.incrementAndGet();
+		} else if (capacity < capacityBefore) {
+			shrinks.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Returns the live latency histogram of an operation.
+	 *
+	 * @param operation operation
+	 * @return histogram, in nanoseconds
+	 */
+	public LatencyHistogram latency(Operation operation) {
+		return latencies[operation.ordinal()];
+	}
+
+	/**
+	 * Returns number of recorded calls of an operation.
+	 *
+	 * @param operation operation
+	 * @return count
+	 */
+	public long count(Operation operation) {
+		return latencies[operation.ordinal()].getCount();
+	}
+
+	/**
+	 * Returns the current number of ScheduleItems.
+	 *
+	 * @return size gauge
+	 */
+	public int size( ) {
+		return store.size();
+	}
+
+	/**
+	 * Returns the current capacity of the store.
+	 *
+	 * @return capacity gauge
+	 */
+	public int capacity( ) {
+		return store.capacity();
+	}
+
+	/**
+	 * Returns number of edits that made the store grow.
+	 *
+	 * @return grow events
+	 */
+	public long grows( ) {
+		return grows.get();
+	}
+
+	/**
+	 * Returns number of edits that made the store shrink.
+	 *
+	 * @return shrink events
+	 */
+	public long shrinks( ) {
+		return shrinks.get();
+	}
+
+	/**
+	 * Returns a point-in-time copy of every metric.
+	 *
+	 * @return report
+	 */
+	public Report report( ) {
+		return new Report(this);
+	}
+
+	/**
+	 * Returns a point-in-time copy of every metric and starts counting from zero, for periodic
+	 * export of per-interval numbers. The gauges are not reset.
+	 *
+	 * @return report of the interval that just ended
+	 */
+	public Report reportAndReset( ) {
+		Report report = new Report(this);
+		reset();
+		return report;
+	}
+
+	/**
+	 * Clears every histogram and resize counter.
+	 */
+	public void reset( ) {
+		for (LatencyHistogram latency : latencies) {
+			latency.reset();
+		}
+		grows.set(0);
+		shrinks.set(0);
+	}
+
+	/**
+	 * This class represents an immutable copy of SchedulerMetrics, taken at one point in time.
+	 */
+	public static class Report {
+
+		/**
+		 * Time the report was taken, from System.currentTimeMillis().
+		 */
+		private final long timestamp;
+
+		/**
+		 * Latency histogram copy of each operation.
+		 */
+		private final Map<Operation, LatencyHistogram> latencies = new EnumMap<>(Operation.class);
+
+		/**
+		 * Size gauge.
+		 */
+		private final int size;
+
+		/**
+		 * Capacity gauge.
+		 */
+		private final int capacity;
+
+		/**
+		 * Grow events.
+		 */
+		private final long grows;
+
+		/**
+		 * Shrink events.
+		 */
+		private final long shrinks;
+
+		/**
+		 * Constructor that copies the given metrics.
+		 *
+		 * @param metrics metrics to copy
+		 */
+		private Report(SchedulerMetrics metrics) {
+			timestamp = System.currentTimeMillis();
+			for (Operation operation : OPERATIONS) {
+				latencies.put(operation, metrics.latency(operation).copy());
+			}
+			size = metrics.size();
+			capacity = metrics.capacity();
+			grows = metrics.grows();
+			shrinks = metrics.shrinks();
+		}
+
+		/**
+		 * Returns the time the report was taken.
+		 *
+		 * @return milliseconds since the epoch
+		 */
+		public long getTimestamp( ) {
+			return timestamp;
+		}
+
+		/**
+		 * Returns the latency histogram of an operation.
+		 *
+		 * @param operation operation
+		 * @return histogram, in nanoseconds
+		 */
+		public LatencyHistogram latency(Operation operation) {
+			return latencies.get(operation).copy();
+		}
+
+		/**
+		 * Returns number of recorded calls of an operation.
+		 *
+		 * @param operation operation
+		 * @return count
+		 */
+		public long count(Operation operation) {
+			return latencies.get(operation).getCount();
+		}
+
+		/**
+		 * Returns the size gauge.
+		 *
+		 * @return number of ScheduleItems
+		 */
+		public int getSize( ) {
+			return size;
+		}
+
+		/**
+		 * Returns the capacity gauge.
+		 *
+		 * @return capacity of the store
+		 */
+		public int getCapacity( ) {
+			return capacity;
+		}
+
+		/**
+		 * Returns number of grow events.
+		 *
+		 * @return grow events
+		 */
+		public long getGrows( ) {
+			return grows;
+		}
+
+		/**
+		 * Returns number of shrink events.
+		 *
+		 * @return shrink events
+		 */
+		public long getShrinks( ) {
+			return shrinks;
+		}
+
+		/**
+		 * Return a string representation of the report, one line per gauge and operation.
+		 *
+		 * @return string representation of report
+		 */
+		public String toString( ) {
+			StringBuilder output = new StringBuilder();
+			output.append("size=").append(size)
+					.append(" capacity=").append(capacity)
+					.append(" grows=").append(grows)
+					.append(" shrinks=").append(shrinks);
+
+			for (Operation operation : OPERATIONS) {
+				output.append('\n').append(operation).append(" [ns] ").append(latencies.get(operation));
+			}
+			return output.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,148 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
+/**
+ * This is a representation of an immutable, point-in-time view of a Scheduler.
+ * It shares storage with the Scheduler it was taken from and never changes, so it can be read
+ * and iterated from any thread without locking.
+ */
+public class SchedulerSnapshot implements Iterable<ScheduleItem>{
+
+	/**
+	 * read-only store of ScheduleItems.
+	 */
+	private final ScheduleStore<ScheduleItem> ScheduleItems;
+
+	/**
+	 * Constructor with the read-only store to view.
+	 * @param store read-only snapshot of a store
+	 */
+	public SchedulerSnapshot(ScheduleStore<ScheduleItem> store){
+		if(store==null){
+			throw new IllegalArgumentException("Null ScheduleStore object!");
+		}
+
+		ScheduleItems = store;
+	}
+
+	/**
+	 * Returns number of ScheduleItems.
+	 * @return number of ScheduleItems.
+	 */
+	public int size(){
+		return ScheduleItems.size();
+	}
+
+	/**
+	 * Return the ScheduleItem at index.
+	 * @param index index
+	 * @return ScheduleItem at specified index, or null if index is out of range.
+	 */
+	public ScheduleItem getScheduleItem(int index){
+		if(index<0 || index>=ScheduleItems.size())
+			return null;
+
+		return ScheduleItems.get(index);
+	}
+
+	/**
+	 * Returns a read-only view of the ScheduleItems starting in [from, to), in order, found by
+	 * binary search without copying. The view never changes, like the snapshot itself.
+	 * @param from earliest start time, inclusive
+	 * @param to latest start time, exclusive
+	 * @return ScheduleItems starting in the window
+	 */
+	public List<ScheduleItem> range(TimeSimulator from, TimeSimulator to){
+		if(from==null || to==null){
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		int low = Scheduler.lowerBound(ScheduleItems, from.getMinuteOfDay());
+		int high = Math.max(low, Scheduler.lowerBound(ScheduleItems, to.getMinuteOfDay()));
+		return new ScheduleRange(ScheduleItems, low, high, null, 0);
+	}
+
+	/**
+	 * Returns an iterator over the ScheduleItems in order.
+	 * @return iterator
+	 */
+	@Override
+	public Iterator<ScheduleItem> iterator(){
+		return new Iterator<ScheduleItem>(){
+
+			/**
+			 * next index.
+			 */
+			private int next;
+
+			@Override
+			public boolean hasNext(){
+				return next < ScheduleItems.size();
+			}
+
+			@Override
+			public ScheduleItem next(){
+				if(!hasNext()){
+					throw new NoSuchElementException();
+				}
+				return ScheduleItems.get(next++);
+			}
+		};
+	}
+
+	/**
+	 * Returns a Spliterator over the ScheduleItems in order that splits the store evenly.
+	 * @return spliterator
+	 */
+	@Override
+	public Spliterator<ScheduleItem> spliterator(){
+		return ScheduleItems.spliterator();
+	}
+
+	/**
+	 * Returns a sequential stream of the ScheduleItems in order.
+	 * @return stream of ScheduleItems
+	 */
+	public Stream<ScheduleItem> stream(){
+		return ScheduleItems.stream();
+	}
+
+	/**
+	 * Returns a parallel stream of the ScheduleItems.
+	 * @return parallel stream of ScheduleItems
+	 */
+	public Stream<ScheduleItem> parallelStream(){
+		return ScheduleItems.parallelStream();
+	}
+
+	/**
+	 * Return the string representation of the snapshot, in the same form as Scheduler.toString().
+	 * @return string representation of snapshot.
+	 */
+	public String toString(){
+		StringBuilder output = new StringBuilder();
+
+		try{
+			Scheduler.writeItems(ScheduleItems, output);
+		}catch(IOException ex){
+			//StringBuilder never throws
+			throw new UncheckedIOException(ex);
+		}
+		return output.toString().trim();
+	}
+
+	/**
+	 * Writes the ScheduleItems to out in the same form as Scheduler.writeTo.
+	 * @param out destination
+	 * @throws IOException if out fails
+	 */
+	public void writeTo(Appendable out) throws IOException{
+		Scheduler.writeItems(ScheduleItems, out);
+	}
+
+}
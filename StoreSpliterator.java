@@ -0,0 +1,155 @@
+import java.util.Comparator;
+import java.util.ConcurrentModificationException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * This class represents a Spliterator over an index range of any ScheduleStore, reading values
+ * with get(int). Splits halve the range, so every part knows its exact size. A change in the
+ * size of the store is reported as ConcurrentModificationException on a best-effort basis.
+ * @param <T> parameter type
+ */
+class StoreSpliterator<T extends Comparable<T>> implements Spliterator<T> {
+
+	/**
+	 * Store being traversed.
+	 */
+	private final ScheduleStore<T> store;
+
+	/**
+	 * Next index to visit.
+	 */
+	private int index;
+
+	/**
+	 * Index past the last one to visit.
+	 */
+	private final int fence;
+
+	/**
+	 * Size of the store when traversal started.
+	 */
+	private final int expectedSize;
+
+	/**
+	 * Constructor for a Spliterator over store[from, to).
+	 *
+	 * @param store store to traverse
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 */
+	StoreSpliterator(ScheduleStore<T> store, int from, int to) {
+		this(store, from, to, store.size());
+	}
+
+	/**
+	 * Constructor for a part of a split.
+	 *
+	 * @param store store to traverse
+	 * @param from first index, inclusive
+	 * @param to last index, exclusive
+	 * @param expectedSize size of the store when traversal started
+	 */
+	private StoreSpliterator(ScheduleStore<T> store, int from, int to, int expectedSize) {
+		this.store = store;
+		this.index = from;
+		this.fence = to;
+		this.expectedSize = expectedSize;
+	}
+
+	/**
+	 * Passes the next value to action, if any.
+	 *
+	 * @param action consumer of the value
+	 * @return true if a value was passed, otherwise false.
+	 */
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (action == null) {
+			throw new NullPointerException();
+		}
+
+		if (index >= fence) {
+			return false;
+		}
+
+		checkForComodification();
+		action.accept(store.get(index++));
+		return true;
+	}
+
+	/**
+	 * Passes every remaining value to action, in order.
+	 *
+	 * @param action consumer of the values
+	 */
+	@Override
+	public void forEachRemaining(Consumer<? super T> action) {
+		if (action == null) {
+			throw new NullPointerException();
+		}
+
+		while (index < fence) {
+			checkForComodification();
+			action.accept(store.get(index++));
+		}
+		checkForComodification();
+	}
+
+	/**
+	 * Splits off the first half of the remaining range.
+	 *
+	 * @return Spliterator over the first half, or null if too small to split
+	 */
+	@Override
+	public Spliterator<T> trySplit( ) {
+		int mid = (index + fence) >>> 1;
+		if (mid <= index) {
+			return null;
+		}
+
+		Spliterator<T> prefix = new StoreSpliterator<>(store, index, mid, expectedSize);
+		index = mid;
+		return prefix;
+	}
+
+	/**
+	 * Returns the exact number of values left.
+	 *
+	 * @return remaining values
+	 */
+	@Override
+	public long estimateSize( ) {
+		return fence - index;
+	}
+
+	/**
+	 * Returns SIZED, SUBSIZED, ORDERED, SORTED and NONNULL.
+	 *
+	 * @return characteristics
+	 */
+	@Override
+	public int characteristics( ) {
+		return SIZED | SUBSIZED | ORDERED | SORTED | NONNULL;
+	}
+
+	/**
+	 * Returns null, as values are in their natural order.
+	 *
+	 * @return null
+	 */
+	@Override
+	public Comparator<? super T> getComparator( ) {
+		return null;
+	}
+
+	/**
+	 * Private method that rejects traversal after the store changed size.
+	 */
+	private void checkForComodification( ) {
+		if (store.size() != expectedSize) {
+			throw new ConcurrentModificationException("Store was changed during traversal!");
+		}
+	}
+
+}
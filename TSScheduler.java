@@ -1,6 +1,17 @@
+import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
 
 /**
  *  TS Daily Scheduler Simulator.
@@ -21,7 +32,12 @@ public class TSScheduler {
 		/**
 		 * File input.
 		 */
-		FILE};
+		FILE,
+
+		/**
+		 * Headless replay of a command file or standard input: no menus, prompts or pauses.
+		 */
+		BATCH};
 
 	/**
 	 * Divider string.
@@ -33,6 +49,21 @@ public class TSScheduler {
 	 */
 	private static Scanner scanner = null;
 
+	/**
+	 * Tokenizer for batch input.
+	 */
+	private static CommandTokenizer commands = null;
+
+	/**
+	 * Current input mode.
+	 */
+	private static Mode myMode = Mode.FILE;
+
+	/**
+	 * Output stream, buffered in batch mode.
+	 */
+	private static PrintStream out = System.out;
+
 	/**
 	 * Scheduler to be demo-ed.
 	 */
@@ -47,10 +78,25 @@ public class TSScheduler {
 
 		//Initialize an empty Scheduler
 		Scheduler = new Scheduler();
-		Mode myMode = Mode.FILE;
+		myMode = Mode.FILE;
 
-		if(args.length > 1){
-			System.out.println("Usage: java TSScheduler [Input_File_Name]");
+		if(args.length > 0 && args[0].equals("--batch")){
+			if(args.length > 2){
+				System.out.println("Usage: java TSScheduler [--batch] [Input_File_Name]");
+				System.exit(0);
+			}
+			try{
+				Reader input = (args.length == 2) ? new FileReader(args[1]) : new InputStreamReader(System.in);
+				commands = new CommandTokenizer(input);
+			}catch(IOException e) {
+				e.printStackTrace();
+				System.exit(0);
+			}
+			out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), 1 << 16), false);
+			myMode = Mode.BATCH;
+		}
+		else if(args.length > 1){
+			System.out.println("Usage: java TSScheduler [--batch] [Input_File_Name]");
 			System.exit(0);
 		}
 		else if (args.length == 1){
@@ -72,49 +118,116 @@ public class TSScheduler {
 
 		}
 
-		System.out.print(divider);
-		System.out.println("------------- TS SCHEDULER -------------");
-		System.out.print(divider);
+		if (myMode == Mode.BATCH){
+			runBatch();
+			return;
+		}
+
+		out.print(divider);
+		out.println("------------- TS SCHEDULER -------------");
+		out.print(divider);
 
-		int option;
 		while(true){
 			displayTSMenu();
 
 			if (myMode == Mode.FILE)
 				enterToContinue();
 
-			option = scanner.nextInt(); //get the next menu choice
-			switch(option){
-				case 1: //display
-					System.out.print(divider);
-					System.out.format("Current Scheduler has %d items/events(s).\n", Scheduler.size());
-					System.out.print(divider);
-					System.out.println(Scheduler.toString());
-					break;
-				case 2: //add an ScheduleItem
-					processAddScheduleItem();
-					break;
-				case 3: //move an ScheduleItem
-					processChangeStart();
-					break;
-				case 4: //change duration of an ScheduleItem
-					processChangeDuration();
-					break;
-				case 5: //change description of an ScheduleItem
-					processChangeDescription();
-					break;
-				case 6: //delete an ScheduleItem
-					processRemoveScheduleItem();
-					break;
-				case 7: //exit
-					System.out.println("Ciao! \n.\n.\n.\n\"Plans are nothing; planning is everything.\" ~Dwight D");
-					return;
-				default:
-					System.out.println("Invalid Choice!");
+			if(!processCommand(nextInt())) //get the next menu choice
+				return;
+		}
+
+	}
+
+	/**
+	 *  The method that replays every command of the batch input and prints a throughput summary.
+	 *  A command that fails is reported and skipped, so the rest of the batch still runs.
+	 *
+	 */
+	private static void runBatch(){
+		long count = 0;
+		long failed = 0;
+		long begin = System.nanoTime();
 
+		try{
+			while(commands.hasNext()){
+				count++;
+				try{
+					if(!processCommand(nextInt()))
+						break;
+				}catch(NoSuchElementException e){
+					throw e;
+				}catch(RuntimeException e){
+					failed++;
+					out.flush();
+					System.err.println("Command " + count + " failed: " + e);
+				}
 			}
+		}catch(IOException | NoSuchElementException e){
+			out.flush();
+			System.err.println("Batch input ended unexpectedly: " + e.getMessage());
+		}finally{
+			out.flush();
+		}
+
+		long elapsed = Math.max(System.nanoTime() - begin, 1);
+		System.err.format("Processed %d command(s), %d failed, in %.3f ms (%.0f commands/s).%n", count, failed, elapsed / 1e6, count * 1e9 / elapsed);
+	}
+
+	/**
+	 *  The method that carries out one menu choice.
+	 *
+	 *  @param option menu choice
+	 *  @return false if the user chose to quit, otherwise true.
+	 */
+	private static boolean processCommand(int option){
+		switch(option){
+			case 1: //display
+				out.print(divider);
+				out.format("Current Scheduler has %d items/events(s).\n", Scheduler.size());
+				out.print(divider);
+				processDisplay();
+				break;
+			case 2: //add an ScheduleItem
+				processAddScheduleItem();
+				break;
+			case 3: //move an ScheduleItem
+				processChangeStart();
+				break;
+			case 4: //change duration of an ScheduleItem
+				processChangeDuration();
+				break;
+			case 5: //change description of an ScheduleItem
+				processChangeDescription();
+				break;
+			case 6: //delete an ScheduleItem
+				processRemoveScheduleItem();
+				break;
+			case 7: //exit
+				out.println("Ciao! \n.\n.\n.\n\"Plans are nothing; planning is everything.\" ~Dwight D");
+				return false;
+			default:
+				out.println("Invalid Choice!");
+
 		}
+		return true;
+	}
+
+	/**
+	 *  The method that streams the schedule to the output, one event per line, through a buffered
+	 *  writer instead of building the whole listing as one String.
+	 *
+	 */
+	private static void processDisplay(){
+		Writer listing = new BufferedWriter(new OutputStreamWriter(out), 1 << 16);
 
+		try{
+			Scheduler.writeTo(listing);
+			listing.write(System.lineSeparator());
+			listing.flush();
+		}catch(IOException ex){
+			out.println(ex.getMessage());
+		}
 	}
 
 	/**
@@ -122,17 +235,20 @@ public class TSScheduler {
 	 *
 	 */
 	private static void displayTSMenu(){
-		System.out.println(divider);
-		System.out.println("Select your choice from the following options:");
-		System.out.println("1 - Display Schedule");
-		System.out.println("2 - Add an event to schedule");
-		System.out.println("3 - Change the start time of an event in your TS Schedule");
-		System.out.println("4 - Change the duration of an event in your TS Schedule");
-		System.out.println("5 - Change the description of an event in your TS Schedule");
-		System.out.println("6 - Remove an event from your TS Schedule");
-		System.out.println("7 - Quit TS Scheduler");
-		System.out.print(divider);
-		System.out.print("Enter numbers 1 to 7: ");
+		if (myMode == Mode.BATCH)
+			return;
+
+		out.println(divider);
+		out.println("Select your choice from the following options:");
+		out.println("1 - Display Schedule");
+		out.println("2 - Add an event to schedule");
+		out.println("3 - Change the start time of an event in your TS Schedule");
+		out.println("4 - Change the duration of an event in your TS Schedule");
+		out.println("5 - Change the description of an event in your TS Schedule");
+		out.println("6 - Remove an event from your TS Schedule");
+		out.println("7 - Quit TS Scheduler");
+		out.print(divider);
+		prompt("Enter numbers 1 to 7: ");
 	}
 
 	/**
@@ -143,34 +259,34 @@ public class TSScheduler {
 		TimeSimulator startTime, endTime;
 
 		//get the starting time (hour/minute)
-		System.out.print("Please enter the starting hour of the new event (0-23): ");
-		int startHour = scanner.nextInt();
-		scanner.nextLine();
-		System.out.print("Please enter the starting minute of the new event (0-59): ");
-		int startMin = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please enter the starting hour of the new event (0-23): ");
+		int startHour = nextInt();
+		nextLine();
+		prompt("Please enter the starting minute of the new event (0-59): ");
+		int startMin = nextInt();
+		nextLine();
 
 		//verify input
 		try{
-			startTime = new TimeSimulator(startHour, startMin);
+			startTime = TimeSimulator.of(startHour, startMin);
 		}catch(IllegalArgumentException ex){
-			System.out.println(ex.getMessage());
+			out.println(ex.getMessage());
 			return;
 		}
 
 		//get the ending time (hour/minute)
-		System.out.print("Please enter the ending hour of the new event (0-23): ");
-		int endHour = scanner.nextInt();
-		scanner.nextLine();
-		System.out.print("Please enter the ending minute of the new event (0-59): ");
-		int endMin = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please enter the ending hour of the new event (0-23): ");
+		int endHour = nextInt();
+		nextLine();
+		prompt("Please enter the ending minute of the new event (0-59): ");
+		int endMin = nextInt();
+		nextLine();
 
 		//verify input
 		try{
-			endTime = new TimeSimulator(endHour, endMin);
+			endTime = TimeSimulator.of(endHour, endMin);
 		}catch(IllegalArgumentException ex){
-			System.out.println(ex.getMessage());
+			out.println(ex.getMessage());
 			return;
 		}
 
@@ -179,20 +295,20 @@ public class TSScheduler {
 		try{
 			ScheduleItem = new ScheduleItem(startTime, endTime);
 		}catch(IllegalArgumentException ex){
-			System.out.println(ex.getMessage());
-			System.out.println("New event cannot be added!");
+			out.println(ex.getMessage());
+			out.println("New event cannot be added!");
 			return;
 		}
 
 		//get the description of the ScheduleItem
-		System.out.println("Please enter a description of the new event: ");
-		String description = scanner.nextLine();
+		promptLine("Please enter a description of the new event: ");
+		String description = nextLine();
 		ScheduleItem.setDescription(description);
 
 		//add ScheduleItem
 		Scheduler.addScheduleItem(ScheduleItem);
-		System.out.println("New event added!");
-		System.out.println("New event details: " + ScheduleItem.toString());
+		out.println("New event added!");
+		out.println("New event details: " + ScheduleItem.toString());
 
 	}
 
@@ -202,24 +318,24 @@ public class TSScheduler {
 	 */
 	private static void processRemoveScheduleItem(){
 		// get the index of ScheduleItem to be removed
-		System.out.print("Please select the event/item number to remove: ");
-		int ScheduleItemIndex = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please select the event/item number to remove: ");
+		int ScheduleItemIndex = nextInt();
+		nextLine();
 
 		//verify index
 		ScheduleItem toRemove = Scheduler.getScheduleItem(ScheduleItemIndex);
 		if (toRemove == null){
-			System.out.println("Invalid item number!");
+			out.println("Invalid item number!");
 			return;
 		}
 
 		//remove ScheduleItem
 		if (Scheduler.removeScheduleItem(ScheduleItemIndex)){
-			System.out.println("event removed!");
-			System.out.println("Removed item details: " +toRemove.toString());
+			out.println("event removed!");
+			out.println("Removed item details: " +toRemove.toString());
 		}
 		else{
-			System.out.println("event cannot be removed!");
+			out.println("event cannot be removed!");
 
 		}
 	}
@@ -232,44 +348,44 @@ public class TSScheduler {
 	 */
 	private static void processChangeStart(){
 		// get the index of ScheduleItem to be changed
-		System.out.print("Please select the item number to change: ");
-		int ScheduleItemIndex = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please select the item number to change: ");
+		int ScheduleItemIndex = nextInt();
+		nextLine();
 
 		//verify index
 		ScheduleItem ScheduleItem = Scheduler.getScheduleItem(ScheduleItemIndex);
 		if (ScheduleItem == null){
-			System.out.println("Invalid item number!");
+			out.println("Invalid item number!");
 			return;
 		}
 
-		System.out.println("You select to change this item:");
-		System.out.println(ScheduleItem);
+		promptLine("You select to change this item:");
+		promptLine(ScheduleItem);
 
 		//get new starting time
-		System.out.print("Please enter the new starting hour of the event (0-23): ");
-		int newHour = scanner.nextInt();
-		scanner.nextLine();
-		System.out.print("Please enter the new starting minute of the event (0-59): ");
-		int newMin = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please enter the new starting hour of the event (0-23): ");
+		int newHour = nextInt();
+		nextLine();
+		prompt("Please enter the new starting minute of the event (0-59): ");
+		int newMin = nextInt();
+		nextLine();
 
 		//verify input
 		TimeSimulator newStart;
 		try{
-			newStart = new TimeSimulator(newHour, newMin);
+			newStart = TimeSimulator.of(newHour, newMin);
 		}
 		catch(IllegalArgumentException ex){
-			System.out.println(ex.getMessage());
+			out.println(ex.getMessage());
 			return;
 		}
 
 		//change start time of the ScheduleItem
 		if (Scheduler.moveScheduleItem(ScheduleItemIndex, newStart)){
-			System.out.println("event changed!");
+			out.println("event changed!");
 		}
 		else{
-			System.out.println("event cannot be changed!");
+			out.println("event cannot be changed!");
 
 		}
 
@@ -281,31 +397,31 @@ public class TSScheduler {
 	 */
 	private static void processChangeDuration(){
 		// get the index of ScheduleItem to be changed
-		System.out.print("Please select the event number to change: ");
-		int ScheduleItemIndex = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please select the event number to change: ");
+		int ScheduleItemIndex = nextInt();
+		nextLine();
 
 		//verify index
 		ScheduleItem ScheduleItem = Scheduler.getScheduleItem(ScheduleItemIndex);
 		if (ScheduleItem == null){
-			System.out.println("Invalid event number!");
+			out.println("Invalid event number!");
 			return;
 		}
 
-		System.out.println("You select to change this event:");
-		System.out.println(ScheduleItem);
+		promptLine("You select to change this event:");
+		promptLine(ScheduleItem);
 
 		//get new duration (in minutes)
-		System.out.print("Please enter the new duration in minutes: ");
-		int newDuration = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please enter the new duration in minutes: ");
+		int newDuration = nextInt();
+		nextLine();
 
 		//change duration
 		if (Scheduler.changeDuration(ScheduleItemIndex, newDuration)){
-			System.out.println("Event changed!");
+			out.println("Event changed!");
 		}
 		else{
-			System.out.println("Event cannot be changed!");
+			out.println("Event cannot be changed!");
 
 		}
 
@@ -317,41 +433,93 @@ public class TSScheduler {
 	 */
 	private static void processChangeDescription(){
 		// get the index of ScheduleItem to be changed
-		System.out.print("Please select the event/item number to change: ");
-		int ScheduleItemIndex = scanner.nextInt();
-		scanner.nextLine();
+		prompt("Please select the event/item number to change: ");
+		int ScheduleItemIndex = nextInt();
+		nextLine();
 
 		//verify index
 		ScheduleItem ScheduleItem = Scheduler.getScheduleItem(ScheduleItemIndex);
 		if (ScheduleItem == null){
-			System.out.println("Invalid event number!");
+			out.println("Invalid event number!");
 			return;
 		}
 
-		System.out.println("You select to change this event:");
-		System.out.println(ScheduleItem);
+		promptLine("You select to change this event:");
+		promptLine(ScheduleItem);
 
 		//get new description
-		System.out.print("Please enter the new description: ");
-		String newDescription = scanner.nextLine();
+		prompt("Please enter the new description: ");
+		String newDescription = nextLine();
 
 		//change description
 		if (Scheduler.changeDescription(ScheduleItemIndex, newDescription)){
-			System.out.println("Event changed!");
+			out.println("Event changed!");
 		}
 		else{
-			System.out.println("Event cannot be changed!");
+			out.println("Event cannot be changed!");
 
 		}
 
 	}
 
+	/**
+	 * The method that prints a prompt, except in batch mode.
+	 *
+	 * @param text prompt text
+	 */
+	private static void prompt(String text){
+		if (myMode != Mode.BATCH)
+			out.print(text);
+	}
+
+	/**
+	 * The method that prints a prompt line, except in batch mode.
+	 *
+	 * @param text prompt text
+	 */
+	private static void promptLine(Object text){
+		if (myMode != Mode.BATCH)
+			out.println(text);
+	}
+
+	/**
+	 * The method that reads the next integer from the current input.
+	 *
+	 * @return next integer
+	 */
+	private static int nextInt(){
+		if (myMode != Mode.BATCH)
+			return scanner.nextInt();
+
+		try{
+			return commands.nextInt();
+		}catch(IOException e){
+			throw new NoSuchElementException(e.getMessage());
+		}
+	}
+
+	/**
+	 * The method that reads the rest of the current line from the current input.
+	 *
+	 * @return rest of the line
+	 */
+	private static String nextLine(){
+		if (myMode != Mode.BATCH)
+			return scanner.nextLine();
+
+		try{
+			return commands.nextLine();
+		}catch(IOException e){
+			throw new NoSuchElementException(e.getMessage());
+		}
+	}
+
 	/**
 	 * The method that interacts with the user and returns when user presses enter/return.
 	 *
 	 */
 	private static void enterToContinue() {
-		System.out.print("Press enter to continue ...");
+		out.print("Press enter to continue ...");
 		Scanner s = new Scanner(System.in);
 		s.nextLine();
 	}
@@ -0,0 +1,131 @@
+/**
+ * This class represents a request to place a task of a given length somewhere in the day, as
+ * passed to Scheduler.autoPlace. The task must start no earlier than earliestStart and end no
+ * later than deadline. Requests with a higher priority are placed first.
+ */
+public class TaskRequest {
+
+	/**
+	 * Latest minute of the day a task may end at (23:59).
+	 */
+	private static final int MAX_MINUTE = DayOccupancy.LAST_MINUTE;
+
+	/**
+	 * Description of the task.
+	 */
+	private final String description;
+
+	/**
+	 * Length of the task in minutes.
+	 */
+	private final int duration;
+
+	/**
+	 * Earliest start time.
+	 */
+	private final TimeSimulator earliestStart;
+
+	/**
+	 * Latest end time.
+	 */
+	private final TimeSimulator deadline;
+
+	/**
+	 * Priority, higher is placed first.
+	 */
+	private final int priority;
+
+	/**
+	 * Constructor for a task that may go anywhere in the day, with priority 0.
+	 *
+	 * @param description description
+	 * @param duration length in minutes, at least 1
+	 */
+	public TaskRequest(String description, int duration) {
+		this(description, duration, TimeSimulator.ofMinuteOfDay(0), TimeSimulator.ofMinuteOfDay(MAX_MINUTE), 0);
+	}
+
+	/**
+	 * Constructor with a window and a priority.
+	 *
+	 * @param description description
+	 * @param duration length in minutes, at least 1
+	 * @param earliestStart earliest start time
+	 * @param deadline latest end time
+	 * @param priority priority, higher is placed first
+	 */
+	public TaskRequest(String description, int duration, TimeSimulator earliestStart, TimeSimulator deadline, int priority) {
+		if (earliestStart == null || deadline == null) {
+			throw new IllegalArgumentException("Null Time object!");
+		}
+
+		if (duration < 1) {
+			throw new IllegalArgumentException("Duration must be at least 1 minute!");
+		}
+
+		if (deadline.getMinuteOfDay() > MAX_MINUTE) {
+			throw new IllegalArgumentException("Deadline cannot be after 23:59!");
+		}
+
+		this.description = description == null ? "" : description;
+		this.duration = duration;
+		this.earliestStart = earliestStart;
+		this.deadline = deadline;
+		this.priority = priority;
+	}
+
+	/**
+	 * Returns the description.
+	 *
+	 * @return description
+	 */
+	public String getDescription( ) {
+		return description;
+	}
+
+	/**
+	 * Returns the length of the task.
+	 *
+	 * @return length in minutes
+	 */
+	public int getDuration( ) {
+		return duration;
+	}
+
+	/**
+	 * Returns the earliest start time.
+	 *
+	 * @return earliest start time
+	 */
+	public TimeSimulator getEarliestStart( ) {
+		return earliestStart;
+	}
+
+	/**
+	 * Returns the latest end time.
+	 *
+	 * @return deadline
+	 */
+	public TimeSimulator getDeadline( ) {
+		return deadline;
+	}
+
+	/**
+	 * Returns the priority.
+	 *
+	 * @return priority, higher is placed first
+	 */
+	public int getPriority( ) {
+		return priority;
+	}
+
+	/**
+	 * Return a string representation of the request.
+	 *
+	 * @return string representation of request
+	 */
+	public String toString( ) {
+		return description + " (" + duration + " min, " + earliestStart + "-" + deadline + ", priority " + priority + ")";
+	}
+
+}
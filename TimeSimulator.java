@@ -3,15 +3,31 @@
  */
 public class TimeSimulator implements Comparable<TimeSimulator> {
 
+	/**
+	 * Number of distinct times in a day.
+	 */
+	private static final int MINUTES_PER_DAY = 24 * 60;
+
+	/**
+	 * Shared instance for every minute of the day, used by the factory methods.
+	 */
+	private static final TimeSimulator[] TIMES = new TimeSimulator[MINUTES_PER_DAY];
+
+	static {
+		for(int i=0; i<MINUTES_PER_DAY; i++){
+			TIMES[i] = new TimeSimulator(i / 60, i % 60);
+		}
+	}
+
 	/**
 	 * hour of time.
 	 */
-	private int hour;
+	private final int hour;
 
 	/**
 	 * minute of time.
 	 */
-	private int min;
+	private final int min;
 
 	/**
 	 * Constructor that sets hour and minute to 0.
@@ -47,19 +63,28 @@ public class TimeSimulator implements Comparable<TimeSimulator> {
 	}
 
 	/**
-	 * Private helper-mutator method.
+	 * Returns the shared TimeSimulator for the given hour and minute without allocating.
 	 * @param hour hour
+	 * @param min minute
+	 * @return time for hour and minute
 	 */
-	private void setHour(int hour){
-		this.hour = hour;
+	public static TimeSimulator of(int hour, int min){
+		if(hour<0 || hour>23 || min<0 || min>59)
+			throw new IllegalArgumentException("Hour must be within [0, 23]; Minute must be within [0, 59]!");
+
+		return TIMES[hour*60 + min];
 	}
 
 	/**
-	 * private helper-mutator method.
-	 * @param min minute
+	 * Returns the shared TimeSimulator for the given number of minutes since 00:00 without allocating.
+	 * @param minuteOfDay minutes since 00:00
+	 * @return time for minuteOfDay
 	 */
-	private void setMin(int min){
-		this.min = min;
+	public static TimeSimulator ofMinuteOfDay(int minuteOfDay){
+		if(minuteOfDay<0 || minuteOfDay>=MINUTES_PER_DAY)
+			throw new IllegalArgumentException("Minute of day must be within [0, 1439]!");
+
+		return TIMES[minuteOfDay];
 	}
 
 	/**
@@ -78,6 +103,14 @@ public class TimeSimulator implements Comparable<TimeSimulator> {
 		return this.min;
 	}
 
+	/**
+	 * Method that returns the number of minutes since 00:00.
+	 * @return minute of day
+	 */
+	public int getMinuteOfDay(){
+		return this.hour*60 + this.min;
+	}
+
 	/**
 	 * Compares two times for ordering.
 	 * @param otherTime time to compare with this time
@@ -88,9 +121,9 @@ public class TimeSimulator implements Comparable<TimeSimulator> {
 		if(otherTime==null)
 			throw new IllegalArgumentException("Null Time object!");
 
-		if((this.getHour()*60 + this.getMin()) < (otherTime.getHour()*60 + otherTime.getMin()))
+		if(this.getMinuteOfDay() < otherTime.getMinuteOfDay())
 			return -1;
-		else if ((this.getHour()*60 + this.getMin()) > (otherTime.getHour()*60 + otherTime.getMin()))
+		else if (this.getMinuteOfDay() > otherTime.getMinuteOfDay())
 			return 1;
 		else
 			return 0;
@@ -105,10 +138,10 @@ public class TimeSimulator implements Comparable<TimeSimulator> {
 		if(endTime==null){
 			throw new IllegalArgumentException("Null Time object!");
 		}
-		if((endTime.getHour()*60 + endTime.getMin()) < (this.getHour()*60 + this.getMin()))
+		if(endTime.getMinuteOfDay() < this.getMinuteOfDay())
 			return -1;
 
-		return ((endTime.getHour()*60 + endTime.getMin()) - (this.getHour()*60 + this.getMin())); //default return, remove/change as needed
+		return endTime.getMinuteOfDay() - this.getMinuteOfDay();
 	}
 
 	/**
@@ -121,36 +154,10 @@ public class TimeSimulator implements Comparable<TimeSimulator> {
 			throw new IllegalArgumentException("Duration must be non-negative!");
 		}
 
-		int durHour=0;
-		int durMin=0;
-
-		while(duration>59){
-			duration -= 60;
-			durHour++;
-		}
-		durMin = duration;
-
-		TimeSimulator toReturn = new TimeSimulator();
-
-		int toRetHour = 0;
-		int toRetMin = 0;
-
-		toRetMin = this.getMin() + durMin;
-
-		while(toRetMin>59){
-			toRetMin -=60;
-			toRetHour++;
-		}
-
-		toRetHour += this.getHour() + durHour;
-
-		toReturn.setHour(toRetHour);
-		toReturn.setMin(toRetMin);
-
-		if(toReturn.getHour()>23)
+		if(duration >= MINUTES_PER_DAY - this.getMinuteOfDay())
 			return null;
 
-		return toReturn;
+		return TIMES[this.getMinuteOfDay() + duration];
 	}
 
 	/**
@@ -0,0 +1,48 @@
+package tsscheduler.bench;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of benchmarks.jar. Takes the usual JMH command line and always adds the GC
+ * profiler, so every result comes with allocation rates (gc.alloc.rate.norm is bytes per op).
+ */
+public final class BenchmarkRunner {
+
+	/**
+	 * No instances.
+	 */
+	private BenchmarkRunner( ) {
+	}
+
+	/**
+	 * Runs the benchmarks selected by args.
+	 *
+	 * @param args JMH command line, e.g. "SorterBenchmark -p size=10000"
+	 * @throws CommandLineOptionException if args are invalid
+	 * @throws RunnerException if a benchmark fails
+	 * @throws IOException if listing benchmarks fails
+	 */
+	public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+		CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp() || commandLine.shouldList() || commandLine.shouldListWithParams()
+				|| commandLine.shouldListProfilers() || commandLine.shouldListResultFormats()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+
+		Options options = new OptionsBuilder()
+				.parent(commandLine)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+
+}
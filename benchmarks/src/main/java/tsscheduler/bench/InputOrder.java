@@ -0,0 +1,97 @@
+package tsscheduler.bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import tsscheduler.ScheduleItem;
+import tsscheduler.TimeSimulator;
+
+/**
+ * Order in which benchmark ScheduleItems are generated.
+ */
+public enum InputOrder {
+
+	/**
+	 * Start times ascending.
+	 */
+	SORTED,
+
+	/**
+	 * Start times descending, so every insert lands at the front.
+	 */
+	REVERSE,
+
+	/**
+	 * Start times uniformly random.
+	 */
+	RANDOM,
+
+	/**
+	 * Every item starts at 09:00, so every insert lands behind all equal items.
+	 */
+	SAME_START;
+
+	/**
+	 * Seed for RANDOM, so every run sees the same schedule.
+	 */
+	private static final long SEED = 0x5EED;
+
+	/**
+	 * Latest start minute, so every item can last at least one minute.
+	 */
+	private static final int LAST_START = 23 * 60 + 58;
+
+	/**
+	 * Number of distinct descriptions.
+	 */
+	private static final int DESCRIPTIONS = 64;
+
+	/**
+	 * Returns size one-minute ScheduleItems with start times in this order.
+	 *
+	 * @param size number of items
+	 * @return items in generation order
+	 */
+	public List<ScheduleItem> items(int size) {
+		Random random = new Random(SEED);
+		List<ScheduleItem> items = new ArrayList<>(size);
+
+		for (int i = 0; i < size; i++) {
+			int start;
+			switch (this) {
+				case SORTED:
+					start = (int) ((long) i * LAST_START / size);
+					break;
+				case REVERSE:
+					start = LAST_START - (int) ((long) i * LAST_START / size);
+					break;
+				case RANDOM:
+					start = random.nextInt(LAST_START + 1);
+					break;
+				default:
+					start = 9 * 60;
+			}
+			items.add(new ScheduleItem(TimeSimulator.ofMinuteOfDay(start), TimeSimulator.ofMinuteOfDay(start + 1), "event " + (i % DESCRIPTIONS)));
+		}
+
+		return items;
+	}
+
+	/**
+	 * Returns count random indexes below size, for benchmarks that cycle through them.
+	 *
+	 * @param size exclusive upper bound
+	 * @param count number of indexes, a power of two
+	 * @return indexes
+	 */
+	static int[] indexes(int size, int count) {
+		Random random = new Random(SEED);
+		int[] indexes = new int[count];
+		for (int i = 0; i < count; i++) {
+			indexes[i] = random.nextInt(size);
+		}
+		return indexes;
+	}
+
+}
@@ -0,0 +1,111 @@
+package tsscheduler.bench;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsscheduler.ScheduleItem;
+import tsscheduler.ScheduleSorter;
+import tsscheduler.Scheduler;
+
+/**
+ * Benchmarks for filling an empty schedule, one item at a time and in bulk.
+ * Each invocation builds a whole schedule, so these run as single shots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LoadBenchmark {
+
+	/**
+	 * Number of items loaded.
+	 */
+	@Param({"100", "10000", "1000000"})
+	private int size;
+
+	/**
+	 * Order the items arrive in.
+	 */
+	@Param({"SORTED", "REVERSE", "RANDOM", "SAME_START"})
+	private InputOrder order;
+
+	/**
+	 * Items to load.
+	 */
+	private List<ScheduleItem> items;
+
+	/**
+	 * Generates the items.
+	 */
+	@Setup
+	public void setUp( ) {
+		items = order.items(size);
+	}
+
+	/**
+	 * ScheduleSorter.add for every item.
+	 *
+	 * @return filled sorter
+	 */
+	@Benchmark
+	public ScheduleSorter<ScheduleItem> sorterAdd( ) {
+		ScheduleSorter<ScheduleItem> sorter = new ScheduleSorter<>();
+		for (ScheduleItem item : items) {
+			sorter.add(item);
+		}
+		return sorter;
+	}
+
+	/**
+	 * ScheduleSorter.addAll with every item.
+	 *
+	 * @return filled sorter
+	 */
+	@Benchmark
+	public ScheduleSorter<ScheduleItem> sorterBulkLoad( ) {
+		ScheduleSorter<ScheduleItem> sorter = new ScheduleSorter<>();
+		sorter.addAll(items);
+		return sorter;
+	}
+
+	/**
+	 * Scheduler.addScheduleItem for every item, including the overlap index and occupancy map.
+	 *
+	 * @return filled Scheduler
+	 */
+	@Benchmark
+	public Scheduler schedulerAdd( ) {
+		Scheduler scheduler = new Scheduler();
+		for (ScheduleItem item : items) {
+			scheduler.addScheduleItem(item);
+		}
+		return scheduler;
+	}
+
+	/**
+	 * Scheduler.addAll with every item, including the overlap index and occupancy map.
+	 *
+	 * @return filled Scheduler
+	 */
+	@Benchmark
+	public Scheduler schedulerBulkLoad( ) {
+		Scheduler scheduler = new Scheduler();
+		scheduler.addAll(items);
+		return scheduler;
+	}
+
+}
@@ -0,0 +1,172 @@
+package tsscheduler.bench;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsscheduler.ScheduleItem;
+import tsscheduler.Scheduler;
+import tsscheduler.TimeSimulator;
+
+/**
+ * Benchmarks for edits, reads and rendering on a filled Scheduler. Edits go to random indexes
+ * and random times, so the schedule keeps its size and its spread of start times.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+	/**
+	 * Number of random indexes and times cycled through.
+	 */
+	private static final int INDEXES = 1 << 12;
+
+	/**
+	 * Number of items in the Scheduler.
+	 */
+	@Param({"100", "10000", "1000000"})
+	private int size;
+
+	/**
+	 * Order the items were added in.
+	 */
+	@Param({"SORTED", "REVERSE", "RANDOM", "SAME_START"})
+	private InputOrder order;
+
+	/**
+	 * Scheduler under test.
+	 */
+	private Scheduler scheduler;
+
+	/**
+	 * Random indexes.
+	 */
+	private int[] indexes;
+
+	/**
+	 * Random start times for move.
+	 */
+	private TimeSimulator[] starts;
+
+	/**
+	 * Position in indexes and starts.
+	 */
+	private int next;
+
+	/**
+	 * Reused rendering buffer.
+	 */
+	private StringBuilder rendered;
+
+	/**
+	 * Fills the Scheduler.
+	 */
+	@Setup
+	public void setUp( ) {
+		scheduler = new Scheduler();
+		scheduler.addAll(order.items(size));
+		indexes = InputOrder.indexes(size, INDEXES);
+
+		int[] minutes = InputOrder.indexes(23 * 60, INDEXES);
+		starts = new TimeSimulator[INDEXES];
+		for (int i = 0; i < INDEXES; i++) {
+			starts[i] = TimeSimulator.ofMinuteOfDay(minutes[i]);
+		}
+		rendered = new StringBuilder();
+	}
+
+	/**
+	 * Moves a random item to a random start time.
+	 *
+	 * @return true if moved
+	 */
+	@Benchmark
+	public boolean move( ) {
+		int i = next++ & (INDEXES - 1);
+		return scheduler.moveScheduleItem(indexes[i], starts[i]);
+	}
+
+	/**
+	 * Changes the duration of a random item to one of 1 to 16 minutes.
+	 *
+	 * @return true if changed
+	 */
+	@Benchmark
+	public boolean changeDuration( ) {
+		int i = next++ & (INDEXES - 1);
+		return scheduler.changeDuration(indexes[i], 1 + (i & 15));
+	}
+
+	/**
+	 * Reads the item at a random index.
+	 *
+	 * @return item
+	 */
+	@Benchmark
+	public ScheduleItem get( ) {
+		return scheduler.getScheduleItem(indexes[next++ & (INDEXES - 1)]);
+	}
+
+	/**
+	 * Streams the whole schedule into a reused buffer with writeTo.
+	 *
+	 * @return number of characters written
+	 * @throws IOException never, StringBuilder does not throw
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public int render( ) throws IOException {
+		rendered.setLength(0);
+		scheduler.writeTo(rendered);
+		return rendered.length();
+	}
+
+	/**
+	 * Builds the whole schedule as a String with toString.
+	 *
+	 * @return rendered schedule
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public String renderToString( ) {
+		return scheduler.toString();
+	}
+
+	/**
+	 * Sums the booked minutes of the whole schedule with a sequential stream.
+	 *
+	 * @return booked minutes
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long bookedMinutes( ) {
+		return scheduler.stream().mapToLong(item -> item.getEndMinute() - item.getStartMinute()).sum();
+	}
+
+	/**
+	 * Sums the booked minutes of the whole schedule with a parallel stream.
+	 *
+	 * @return booked minutes
+	 */
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public long bookedMinutesParallel( ) {
+		return scheduler.parallelStream().mapToLong(item -> item.getEndMinute() - item.getStartMinute()).sum();
+	}
+
+}
@@ -0,0 +1,129 @@
+package tsscheduler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsscheduler.ChunkedScheduleSorter;
+import tsscheduler.ScheduleItem;
+import tsscheduler.ScheduleSorter;
+import tsscheduler.ScheduleStore;
+
+/**
+ * Benchmarks for single operations on a filled ScheduleSorter or ChunkedScheduleSorter. The delete benchmarks put the
+ * deleted item back, so the sorter keeps its size across invocations; they measure one delete
+ * at the given position plus the add that restores it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SorterBenchmark {
+
+	/**
+	 * Number of random indexes cycled through.
+	 */
+	private static final int INDEXES = 1 << 12;
+
+	/**
+	 * Number of items in the sorter.
+	 */
+	@Param({"100", "10000", "1000000"})
+	private int size;
+
+	/**
+	 * Order the items were added in.
+	 */
+	@Param({"SORTED", "REVERSE", "RANDOM", "SAME_START"})
+	private InputOrder order;
+
+	/**
+	 * Store under test: "flat" for ScheduleSorter, "chunked" for ChunkedScheduleSorter.
+	 */
+	@Param({"flat", "chunked"})
+	private String store;
+
+	/**
+	 * Sorter under test.
+	 */
+	private ScheduleStore<ScheduleItem> sorter;
+
+	/**
+	 * Random indexes for get.
+	 */
+	private int[] indexes;
+
+	/**
+	 * Position in indexes.
+	 */
+	private int next;
+
+	/**
+	 * Fills the sorter.
+	 */
+	@Setup
+	public void setUp( ) {
+		sorter = store.equals("chunked") ? new ChunkedScheduleSorter<>() : new ScheduleSorter<>();
+		sorter.addAll(order.items(size));
+		indexes = InputOrder.indexes(size, INDEXES);
+	}
+
+	/**
+	 * Deletes the first item and adds it back.
+	 *
+	 * @return deleted item
+	 */
+	@Benchmark
+	public ScheduleItem deleteFront( ) {
+		ScheduleItem item = sorter.delete(0);
+		sorter.add(item);
+		return item;
+	}
+
+	/**
+	 * Deletes the middle item and adds it back.
+	 *
+	 * @return deleted item
+	 */
+	@Benchmark
+	public ScheduleItem deleteMiddle( ) {
+		ScheduleItem item = sorter.delete(sorter.size() / 2);
+		sorter.add(item);
+		return item;
+	}
+
+	/**
+	 * Deletes the last item and adds it back.
+	 *
+	 * @return deleted item
+	 */
+	@Benchmark
+	public ScheduleItem deleteEnd( ) {
+		ScheduleItem item = sorter.delete(sorter.size() - 1);
+		sorter.add(item);
+		return item;
+	}
+
+	/**
+	 * Reads the item at a random index.
+	 *
+	 * @return item
+	 */
+	@Benchmark
+	public ScheduleItem get( ) {
+		return sorter.get(indexes[next++ & (INDEXES - 1)]);
+	}
+
+}
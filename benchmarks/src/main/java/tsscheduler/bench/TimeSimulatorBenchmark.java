@@ -0,0 +1,91 @@
+package tsscheduler.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tsscheduler.TimeSimulator;
+
+/**
+ * Benchmarks for the TimeSimulator lookups every ScheduleItem edit goes through.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TimeSimulatorBenchmark {
+
+	/**
+	 * Number of random values cycled through.
+	 */
+	private static final int VALUES = 1 << 12;
+
+	/**
+	 * Random minutes of the day.
+	 */
+	private int[] minutes;
+
+	/**
+	 * Random durations up to two hours.
+	 */
+	private int[] durations;
+
+	/**
+	 * Position in the random values.
+	 */
+	private int next;
+
+	/**
+	 * Generates the random values.
+	 */
+	@Setup
+	public void setUp( ) {
+		minutes = InputOrder.indexes(24 * 60, VALUES);
+		durations = InputOrder.indexes(120, VALUES);
+	}
+
+	/**
+	 * Looks up a time by hour and minute.
+	 *
+	 * @return time
+	 */
+	@Benchmark
+	public TimeSimulator of( ) {
+		int minute = minutes[next++ & (VALUES - 1)];
+		return TimeSimulator.of(minute / 60, minute % 60);
+	}
+
+	/**
+	 * Computes an end time from a start time and duration.
+	 *
+	 * @return end time, or null past 23:59
+	 */
+	@Benchmark
+	public TimeSimulator getEndTime( ) {
+		int i = next++ & (VALUES - 1);
+		return TimeSimulator.ofMinuteOfDay(minutes[i]).getEndTime(durations[i]);
+	}
+
+	/**
+	 * Compares two times.
+	 *
+	 * @return comparison result
+	 */
+	@Benchmark
+	public int compareTo( ) {
+		int i = next++ & (VALUES - 1);
+		return TimeSimulator.ofMinuteOfDay(minutes[i]).compareTo(TimeSimulator.ofMinuteOfDay(minutes[(i + 1) & (VALUES - 1)]));
+	}
+
+}